@@ -74,9 +74,9 @@ public final class RestXqFunction extends WebFunction {
   private QNm requestBody;
 
   /** Error (can be {@code null}). */
-  private RestXqError error;
-  /** Error (can be {@code null}). */
-  private RestXqPerm permission;
+  RestXqError error;
+  /** Permission (can be {@code null}). */
+  RestXqPerm permission;
 
   /**
    * Constructor.
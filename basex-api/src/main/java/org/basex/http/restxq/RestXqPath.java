@@ -17,6 +17,8 @@ import org.basex.util.*;
 final class RestXqPath extends WebPath implements Comparable<RestXqPath> {
   /** Path matcher. */
   private final RestXqPathMatcher matcher;
+  /** Literal path segments preceding the first template. */
+  final String[] literals;
 
   /**
    * Constructor.
@@ -27,6 +29,14 @@ final class RestXqPath extends WebPath implements Comparable<RestXqPath> {
   RestXqPath(final String path, final InputInfo ii) throws QueryException {
     super(path);
     matcher = RestXqPathMatcher.parse(path, ii);
+
+    // decoded literal part, starting with a slash (encoding has been checked by the matcher)
+    final int t = path.indexOf('{');
+    final String literal = (t == -1 ? path : path.substring(0, t)).replaceAll("^/", "");
+    final String[] segments = ('/' + Token.string(Token.decodeUri(Token.token(literal)))).
+        split("/", -1);
+    // skip the empty first segment and, if a template follows, the incomplete last segment
+    literals = Arrays.copyOfRange(segments, 1, segments.length - (t == -1 ? 0 : 1));
   }
 
   /**
@@ -0,0 +1,103 @@
+package org.basex.http.restxq;
+
+import java.util.*;
+
+import org.basex.http.*;
+import org.basex.http.web.*;
+import org.basex.query.value.item.*;
+
+/**
+ * Route table of the RESTXQ functions of all cached modules. Functions with paths are indexed
+ * by the literal segments that precede the first template of their path. All function lists are
+ * sorted by specifity when the table is created.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class RestXqRoutes {
+  /** Comparator for paths. */
+  private static final Comparator<RestXqFunction> PATHS = (f1, f2) -> f1.path.compareTo(f2.path);
+
+  /** Root node of the path index. */
+  private final Node root = new Node();
+  /** Error functions, sorted by specifity. */
+  private final ArrayList<RestXqFunction> errors = new ArrayList<>();
+  /** Permission functions, sorted by specifity. */
+  private final ArrayList<RestXqFunction> perms = new ArrayList<>();
+
+  /**
+   * Constructor.
+   * @param modules web modules
+   */
+  public RestXqRoutes(final Collection<WebModule> modules) {
+    final ArrayList<RestXqFunction> paths = new ArrayList<>();
+    for(final WebModule module : modules) {
+      for(final RestXqFunction func : module.functions()) {
+        if(func.path != null) paths.add(func);
+        if(func.error != null) errors.add(func);
+        if(func.permission != null) perms.add(func);
+      }
+    }
+    paths.sort(PATHS);
+    errors.sort((f1, f2) -> f1.error.compareTo(f2.error));
+    perms.sort((f1, f2) -> f1.permission.compareTo(f2.permission));
+
+    // index functions by literal path segments; order of functions will be preserved
+    for(final RestXqFunction func : paths) {
+      Node node = root;
+      for(final String segment : func.path.literals) {
+        node = node.children.computeIfAbsent(segment, s -> new Node());
+      }
+      node.funcs.add(func);
+    }
+  }
+
+  /**
+   * Returns RESTXQ and permission functions that match the current request.
+   * @param conn HTTP connection
+   * @param error error code (assigned if error function is to be called)
+   * @param perm permission flag
+   * @return list of matching functions, ordered by specifity
+   */
+  public List<RestXqFunction> find(final HTTPConnection conn, final QNm error,
+      final boolean perm) {
+
+    final ArrayList<RestXqFunction> list = new ArrayList<>();
+    if(perm || error != null) {
+      for(final RestXqFunction func : perm ? perms : errors) {
+        if(func.matches(conn, error, perm)) list.add(func);
+      }
+      return list;
+    }
+
+    // visit all nodes whose literal segments are a prefix of the request path
+    final String path = conn.path();
+    final int pl = path.length();
+    int nodes = 0;
+    Node node = root;
+    for(int s = 0; node != null; ) {
+      final int size = list.size();
+      for(final RestXqFunction func : node.funcs) {
+        if(func.matches(conn, null, false)) list.add(func);
+      }
+      if(list.size() > size) nodes++;
+      if(s >= pl) break;
+
+      int e = path.indexOf('/', s + 1);
+      if(e == -1) e = pl;
+      node = node.children.get(path.substring(s + 1, e));
+      s = e;
+    }
+    // merge results of different nodes
+    if(nodes > 1) list.sort(PATHS);
+    return list;
+  }
+
+  /** Node of the path index. */
+  private static final class Node {
+    /** Child nodes, indexed by path segments. */
+    private final HashMap<String, Node> children = new HashMap<>();
+    /** Functions, sorted by specifity. */
+    private final ArrayList<RestXqFunction> funcs = new ArrayList<>();
+  }
+}
@@ -104,6 +104,8 @@ public final class WebModule {
 
   /**
    * Retrieves a query context for the given module.
+   * The module is parsed and compiled for each request: a query context can only be used once,
+   * it is bound to the context of the requesting user, and compilation inlines the arguments.
    * @param ctx database context
    * @return query context
    * @throws QueryException query exception
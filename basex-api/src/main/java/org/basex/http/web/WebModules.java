@@ -38,6 +38,8 @@ public final class WebModules {
 
   /** Module cache. */
   private HashMap<String, WebModule> modules = new HashMap<>();
+  /** RESTXQ route table (rebuilt whenever the modules are parsed). */
+  private RestXqRoutes routes = new RestXqRoutes(modules.values());
   /** Current parsing state. */
   private boolean parsed;
   /** Last access. */
@@ -138,17 +140,7 @@ public final class WebModules {
    */
   private List<RestXqFunction> find(final HTTPConnection conn, final QNm error, final boolean perm)
       throws QueryException, IOException {
-
-    // collect and sort all functions
-    final ArrayList<RestXqFunction> list = new ArrayList<>();
-    for(final WebModule mod : cache(conn.context).values()) {
-      for(final RestXqFunction func : mod.functions()) {
-        if(func.matches(conn, error, perm)) list.add(func);
-      }
-    }
-    // sort by specifity
-    Collections.sort(list);
-    return list;
+    return routes(conn.context).find(conn, error, perm);
   }
 
   /**
@@ -307,12 +299,25 @@ public final class WebModules {
       final HashMap<String, WebModule> map = new HashMap<>();
       cache(ctx, path, map, modules);
       modules = map;
+      routes = new RestXqRoutes(map.values());
       parsed = cached;
     }
     last = System.currentTimeMillis();
     return modules;
   }
 
+  /**
+   * Updates the module cache and returns the RESTXQ route table.
+   * @param ctx database context
+   * @return route table
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private synchronized RestXqRoutes routes(final Context ctx) throws QueryException, IOException {
+    cache(ctx);
+    return routes;
+  }
+
   /**
    * Parses the specified path for modules with relevant annotations and caches new entries.
    * @param root root path
@@ -59,6 +59,22 @@ public final class RestXqPathTest extends RestXqTest {
     get("declare %R:path('{$m:x}') function m:f($m:x) {$m:x};", "z", "z");
   }
 
+  /**
+   * Chooses between paths with common literal segments.
+   * @throws Exception exception
+   */
+  @Test public void getCommonSegments() throws Exception {
+    final String f = "declare %R:path('/a/b') function m:f() {'ab'};" +
+        "declare %R:path('/a/{$x}') function m:g($x) {'a*'};" +
+        "declare %R:path('/{$x}/b') function m:h($x) {'*b'};" +
+        "declare %R:path('/a/b/{$x=.+}') function m:i($x) {$x};";
+    get(f, "a/b", "ab");
+    get(f, "a/c", "a*");
+    get(f, "c/b", "*b");
+    get(f, "a/b/c/d", "c/d");
+    getE(f, "c/c");
+  }
+
   /**
    * Retrieves path with variables on root level.
    * @throws Exception exception
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 import org.basex.api.client.*;
@@ -31,6 +32,8 @@ public final class BaseXServer extends CLI implements Runnable {
   private volatile boolean stop;
   /** Server socket. */
   private ServerSocket socket;
+  /** Dispatcher for client requests ({@code null}: one thread per client). */
+  private ClientDispatcher dispatcher;
   /** Start as service. */
   private boolean service;
   /** Daemon flag. */
@@ -95,7 +98,13 @@ public final class BaseXServer extends CLI implements Runnable {
     }
 
     try {
-      socket = new ServerSocket();
+      final int threads = sopts.get(StaticOptions.SERVERTHREADS);
+      if(threads > 0) {
+        socket = ServerSocketChannel.open().socket();
+        dispatcher = new ClientDispatcher(threads, context);
+      } else {
+        socket = new ServerSocket();
+      }
       socket.setReuseAddress(true);
       socket.bind(new InetSocketAddress(addr, port));
       stopFile = stopFile(getClass(), port);
@@ -159,7 +168,8 @@ public final class BaseXServer extends CLI implements Runnable {
             }, ka);
             authorizing.add(cl);
           }
-          cl.start();
+          if(dispatcher != null) dispatcher.add(cl);
+          else cl.start();
         }
       } catch(final SocketException ex) {
         Util.debug(ex);
@@ -194,6 +204,7 @@ public final class BaseXServer extends CLI implements Runnable {
       cl.close();
     }
     context.sessions.close();
+    if(dispatcher != null) dispatcher.close();
 
     try {
       // close interactive input if server was stopped by another process
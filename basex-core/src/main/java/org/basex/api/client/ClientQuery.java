@@ -1,10 +1,10 @@
 package org.basex.api.client;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.api.dom.*;
-import org.basex.core.*;
-import org.basex.io.in.*;
+import org.basex.io.out.*;
 import org.basex.io.serial.*;
 import org.basex.query.*;
 import org.basex.query.value.*;
@@ -27,6 +27,10 @@ public class ClientQuery extends Query {
   final ClientSession cs;
   /** Query id. */
   final String id;
+  /** Number of results to be requested at once ({@code 0}: all results). */
+  private int fetchSize;
+  /** Error message of a failed pipelined request, to be raised by the next request. */
+  String pipelined;
 
   /**
    * Standard constructor.
@@ -39,28 +43,140 @@ public class ClientQuery extends Query {
       throws IOException {
     cs = session;
     out = output;
-    id = session.exec(ServerCmd.QUERY, query, null);
+    id = session.exec(ServerCmd.QUERY, query, null, null);
   }
 
   @Override
   public String info() throws IOException {
-    return cs.exec(ServerCmd.INFO, id, null);
+    return cs.exec(ServerCmd.INFO, id, null, this);
   }
 
   @Override
   public String options() throws IOException {
-    return cs.exec(ServerCmd.OPTIONS, id, null);
+    return cs.exec(ServerCmd.OPTIONS, id, null, this);
   }
 
   @Override
   public boolean updating() throws IOException {
-    return Boolean.parseBoolean(cs.exec(ServerCmd.UPDATING, id, null));
+    return Boolean.parseBoolean(cs.exec(ServerCmd.UPDATING, id, null, this));
   }
 
   @Override
   public void bind(final String name, final Object value, final String type) throws IOException {
     cache = null;
 
+    // bindings are sent together with the next request
+    final String[] vt = encode(value, type);
+    final ServerCmd cmd = name == null ? ServerCmd.CONTEXT : ServerCmd.BIND;
+    final String n = name == null ? "" : name + '\0';
+    cs.pipe(cmd, id + '\0' + n + vt[0] + '\0' + vt[1], this);
+  }
+
+  @Override
+  public void context(final Object value, final String type) throws IOException {
+    bind(null, value, type);
+  }
+
+  @Override
+  public String execute() throws IOException {
+    return cs.exec(ServerCmd.EXEC, id, out, this);
+  }
+
+  @Override
+  public String[] execute(final List<? extends Map<String, ?>> bindings) throws IOException {
+    cache = null;
+
+    // send all bindings in a single request
+    final int size = bindings.size();
+    cs.stop();
+    cs.sout.write(ServerCmd.BATCH.code);
+    cs.send(id);
+    cs.send(Integer.toString(size));
+    for(final Map<String, ?> binding : bindings) {
+      cs.send(Integer.toString(binding.size()));
+      for(final Map.Entry<String, ?> entry : binding.entrySet()) {
+        final String[] vt = encode(entry.getValue(), null);
+        cs.send(entry.getKey());
+        cs.send(vt[0]);
+        cs.send(vt[1]);
+      }
+    }
+    final String error = cs.flush(this);
+
+    // read all results before errors are raised (evaluation is stopped after the first error)
+    final String[] results = new String[size];
+    int status = 0;
+    for(int s = 0; s < size && status == 0; s++) {
+      final OutputStream o = out == null ? new ArrayOutput() : out;
+      ClientSession.receive(cs.sin, o);
+      status = cs.sin.read();
+      results[s] = o.toString();
+    }
+    cs.check(status, error);
+    return results;
+  }
+
+  @Override
+  public void close() throws IOException {
+    cs.pipe(ServerCmd.CLOSE, id, this);
+    cs.sout.flush();
+  }
+
+  @Override
+  public void cache(final boolean full) throws IOException {
+    if(cs.cursor == this) {
+      // resume suspended cursor
+      cs.cursor = null;
+      cs.send(Integer.toString(fetchSize));
+    } else if(fetchSize > 0 && !full) {
+      cs.stop();
+      cs.sout.write(ServerCmd.FETCH.code);
+      cs.send(id);
+      cs.send(Integer.toString(fetchSize));
+    } else {
+      cs.stop();
+      cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
+      cs.send(id);
+    }
+    final String error = cs.flush(this);
+    cache(cs.sin, full);
+    // status 2: cursor has been suspended, more results are available
+    final int status = cs.sin.read();
+    if(status == 2) cs.cursor = this;
+    cs.check(status == 2 ? 0 : status, error);
+  }
+
+  @Override
+  public boolean more() throws IOException {
+    // request next chunk if the cached results have been consumed
+    return super.more() || cs.cursor == this && super.more();
+  }
+
+  /**
+   * Assigns the number of results that will be requested at once when iterating through the
+   * results with {@link #more()} and {@link #next()}. If a positive value is assigned, results
+   * will be returned by a server-side cursor: evaluation of the query will be suspended until the
+   * next chunk is requested, and locks will be kept until all results have been retrieved.
+   * If another request is sent via the same session, the cursor will be stopped, and the remaining
+   * results will be discarded.
+   * Cursors will be stopped by the server if no chunk is requested within the time specified by
+   * {@link org.basex.core.StaticOptions#CURSORTIMEOUT}. If the server is run with a bounded
+   * number of {@link org.basex.core.StaticOptions#SERVERTHREADS}, all results will be returned
+   * at once, and the server will log that the fetch size has been ignored.
+   * @param size number of results ({@code 0}: request all results at once)
+   */
+  public void fetchSize(final int size) {
+    fetchSize = Math.max(0, size);
+  }
+
+  /**
+   * Encodes a value for the client/server protocol.
+   * @param value value to be bound
+   * @param type value type (may be {@code null})
+   * @return encoded value and type
+   * @throws IOException I/O exception
+   */
+  private static String[] encode(final Object value, final String type) throws IOException {
     final Object vl = value instanceof BXNode ? ((BXNode) value).getNode() : value;
     String t = type == null ? "" : type;
     final String v;
@@ -87,36 +203,6 @@ public class ClientQuery extends Query {
     } else {
       v = value.toString();
     }
-
-    final ServerCmd cmd = name == null ? ServerCmd.CONTEXT : ServerCmd.BIND;
-    final String n = name == null ? "" : name + '\0';
-    cs.exec(cmd, id + '\0' + n + v + '\0' + t, null);
-  }
-
-  @Override
-  public void context(final Object value, final String type) throws IOException {
-    bind(null, value, type);
-  }
-
-  @Override
-  public String execute() throws IOException {
-    return cs.exec(ServerCmd.EXEC, id, out);
-  }
-
-  @Override
-  public void close() throws IOException {
-    cs.exec(ServerCmd.CLOSE, id, null);
-  }
-
-  @Override
-  public void cache(final boolean full) throws IOException {
-    cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
-    cs.send(id);
-    cs.sout.flush();
-
-    @SuppressWarnings("resource")
-    final BufferInput bi = BufferInput.get(cs.sin);
-    cache(bi, full);
-    if(!ClientSession.ok(bi)) throw new BaseXException(bi.readString());
+    return new String[] { v, t };
   }
 }
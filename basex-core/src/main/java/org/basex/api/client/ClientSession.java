@@ -2,6 +2,7 @@ package org.basex.api.client;
 
 import java.io.*;
 import java.net.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.core.parse.Commands.Cmd;
@@ -31,11 +32,15 @@ import org.basex.util.*;
 public class ClientSession extends Session {
   /** Server output (buffered). */
   final PrintOutput sout;
-  /** Server input. */
-  final InputStream sin;
+  /** Server input (buffered). */
+  final BufferInput sin;
 
   /** Socket reference. */
   private final Socket socket;
+  /** Queries of pipelined requests whose responses have not been read yet. */
+  private final ArrayList<ClientQuery> pending = new ArrayList<>();
+  /** Query with a suspended server-side cursor (can be {@code null}). */
+  ClientQuery cursor;
 
   /**
    * Constructor, specifying login data.
@@ -98,11 +103,10 @@ public class ClientSession extends Session {
     } catch(final IllegalArgumentException ex) {
       throw new BaseXException(ex);
     }
-    sin = socket.getInputStream();
+    sin = BufferInput.get(socket.getInputStream());
 
     // receive server response
-    final BufferInput bi = BufferInput.get(sin);
-    final String[] response = Strings.split(bi.readString(), ':');
+    final String[] response = Strings.split(sin.readString(), ':');
     final String code, nonce;
     if(response.length > 1) {
       // support for digest authentication
@@ -121,7 +125,7 @@ public class ClientSession extends Session {
     sout.flush();
 
     // receive success flag
-    if(!ok(bi)) throw new LoginException();
+    if(!ok(sin)) throw new LoginException();
   }
 
   @Override
@@ -156,8 +160,8 @@ public class ClientSession extends Session {
 
   @Override
   protected void execute(final String command, final OutputStream output) throws IOException {
+    stop();
     send(command);
-    sout.flush();
     receive(output);
   }
 
@@ -175,7 +179,6 @@ public class ClientSession extends Session {
     final ServerOutput so = new ServerOutput(sout);
     for(int b; (b = input.read()) != -1;) so.write(b);
     sout.write(0);
-    sout.flush();
     receive(null);
   }
 
@@ -184,12 +187,12 @@ public class ClientSession extends Session {
    * @param output output stream to send result to. If {@code null}, no result will be requested
    * @throws IOException I/O exception
    */
-  @SuppressWarnings("resource")
   private void receive(final OutputStream output) throws IOException {
-    final BufferInput bi = BufferInput.get(sin);
-    if(output != null) receive(bi, output);
-    info = bi.readString();
-    if(!ok(bi)) throw new BaseXException(info);
+    // errors of pipelined query requests will be raised by the next request of the query
+    flush(null);
+    if(output != null) receive(sin, output);
+    info = sin.readString();
+    if(!ok(sin)) throw new BaseXException(info);
   }
 
   /**
@@ -212,6 +215,7 @@ public class ClientSession extends Session {
   private void send(final ServerCmd command, final InputStream input, final String... args)
       throws IOException {
 
+    stop();
     sout.write(command.code);
     for(final String arg : args) send(arg);
     send(input);
@@ -243,23 +247,97 @@ public class ClientSession extends Session {
    * @param command server command
    * @param arg argument
    * @param output target output stream
+   * @param query query that sends the request ({@code null} if a new query is created)
    * @return string
    * @throws IOException I/O exception
    */
-  @SuppressWarnings("resource")
-  String exec(final ServerCmd command, final String arg, final OutputStream output)
-      throws IOException {
+  String exec(final ServerCmd command, final String arg, final OutputStream output,
+      final ClientQuery query) throws IOException {
 
     final OutputStream o = output == null ? new ArrayOutput() : output;
+    stop();
     sout.write(command.code);
     send(arg);
-    sout.flush();
-    final BufferInput bi = BufferInput.get(sin);
-    receive(bi, o);
-    if(!ok(bi)) throw new BaseXException(bi.readString());
+    final String error = flush(query);
+    receive(sin, o);
+    check(error);
     return o.toString();
   }
 
+  /**
+   * Sends a command without waiting for its response (pipelining). The response will be read
+   * when the response of the next regular request is received. An error will be raised by the
+   * next regular request of the specified query.
+   * @param command server command
+   * @param arg argument
+   * @param query query that sends the request
+   * @throws IOException I/O exception
+   */
+  void pipe(final ServerCmd command, final String arg, final ClientQuery query)
+      throws IOException {
+    stop();
+    sout.write(command.code);
+    send(arg);
+    pending.add(query);
+  }
+
+  /**
+   * Sends all buffered requests to the server and reads the responses of pipelined requests.
+   * Errors are assigned to the queries that sent the failed requests.
+   * @param query query that sends the next regular request (can be {@code null})
+   * @return error message of the first pipelined request of this query that failed,
+   *   or {@code null}
+   * @throws IOException I/O exception
+   */
+  String flush(final ClientQuery query) throws IOException {
+    sout.flush();
+    for(final ClientQuery qu : pending) {
+      receive(sin, new NullOutput());
+      final String msg = ok(sin) ? null : sin.readString();
+      if(qu.pipelined == null) qu.pipelined = msg;
+    }
+    pending.clear();
+    if(query == null) return null;
+    final String error = query.pipelined;
+    query.pipelined = null;
+    return error;
+  }
+
+  /**
+   * Reads the success flag of a response and raises an error if the request or a preceding
+   * pipelined request failed.
+   * @param error error message of a pipelined request (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  void check(final String error) throws IOException {
+    check(sin.read(), error);
+  }
+
+  /**
+   * Raises an error if a request or a preceding pipelined request failed.
+   * @param status success flag of the response
+   * @param error error message of a pipelined request (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  void check(final int status, final String error) throws IOException {
+    final String msg = status == 0 ? null : sin.readString();
+    if(error != null) throw new BaseXException(error);
+    if(msg != null) throw new BaseXException(msg);
+  }
+
+  /**
+   * Stops a suspended server-side cursor before a new request is sent.
+   * The remaining results of the cursor will be discarded.
+   * @throws IOException I/O exception
+   */
+  void stop() throws IOException {
+    if(cursor != null) {
+      pending.add(cursor);
+      cursor = null;
+      send("0");
+    }
+  }
+
   @Override
   public String toString() {
     return Prop.PROJECT_NAME + ":/" + socket.getLocalAddress() + ':' + socket.getPort();
@@ -1,6 +1,7 @@
 package org.basex.api.client;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.io.in.*;
 import org.basex.query.value.type.*;
@@ -143,6 +144,27 @@ public abstract class Query implements Closeable {
    */
   public abstract String execute() throws IOException;
 
+  /**
+   * Executes the query several times and returns the results. For each execution, the values of
+   * the specified map are bound to the external variables (an empty key denotes the context value).
+   * @param bindings variable bindings for each execution
+   * @return result strings
+   * @throws IOException I/O exception
+   */
+  public String[] execute(final List<? extends Map<String, ?>> bindings) throws IOException {
+    final int size = bindings.size();
+    final String[] results = new String[size];
+    for(int s = 0; s < size; s++) {
+      for(final Map.Entry<String, ?> entry : bindings.get(s).entrySet()) {
+        final String name = entry.getKey();
+        if(name.isEmpty()) context(entry.getValue());
+        else bind(name, entry.getValue());
+      }
+      results[s] = execute();
+    }
+    return results;
+  }
+
   /**
    * Returns the serialization options.
    * @return serialization options.
@@ -170,7 +170,7 @@ public final class DiskBuilder extends Builder {
     if(inlined != 0) return inlined;
 
     // store text to heap file
-    final byte[] packed = Compress.pack(value);
+    final byte[] packed = Compress.pack(value, meta.lzcompress);
     final DataOutput store = text ? xout : vout;
     final long offset = store.size();
     store.writeToken(packed);
@@ -9,6 +9,7 @@ import org.basex.build.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
@@ -36,6 +37,19 @@ public class XMLParser extends SingleParser {
   /** Closed root element. */
   private boolean closed;
 
+  /** Streaming: local names of the elements to be streamed (can be {@code null}). */
+  private byte[][] stream;
+  /** Streaming: builder for the next streamed element. */
+  private Builder target;
+  /** Streaming: namespaces declared by the opened elements. */
+  private final Atts nss = new Atts();
+  /** Streaming: number of namespaces declared before the opened elements. */
+  private final IntList nssizes = new IntList();
+  /** Streaming: number of ancestors of the currently streamed element. */
+  private int level;
+  /** Streaming: indicates if an element has been completely streamed. */
+  private boolean streamed;
+
   /**
    * Constructor.
    * @param source document source
@@ -66,27 +80,67 @@ public class XMLParser extends SingleParser {
   public final void parse() throws IOException {
     // loop until all tokens have been processed
     scanner.more();
-    while(true) {
-      if(scanner.type == Type.TEXT) {
-        final byte[] text = scanner.token.toArray();
-        if(!elms.isEmpty() || fragment || !ws(text)) {
-          if(chops.peek()) scanner.token.trim();
-          builder.text(scanner.token.toArray());
-        }
-      } else if(scanner.type == Type.COMMENT) {
-        builder.comment(scanner.token.toArray());
-      } else if(scanner.type == Type.PI) {
-        builder.pi(scanner.token.toArray());
-      } else if(scanner.type == Type.EOF) {
-        break;
-      } else if(scanner.type != Type.DTD) {
-        // L_BR, L_BR_CLOSE
-        if(!fragment && closed) throw new BuildException(MOREROOTS, detailedInfo());
-        if(!parseElement()) break;
-        continue;
+    while(next());
+    finish();
+  }
+
+  /**
+   * Streams the input: parses the input until the next element with the specified path has
+   * been parsed. Only the events of this element and its descendants are sent to the specified
+   * builder; all other nodes are skipped. This way, huge documents can be processed with bounded
+   * memory. The path of the first call will be used for all subsequent calls.
+   * @param path local names of the element and its ancestors ({@code null}: match all names)
+   * @param build builder
+   * @return {@code true} if an element was found, {@code false} if the input has been consumed
+   * @throws IOException I/O exception
+   */
+  public final boolean stream(final byte[][] path, final Builder build) throws IOException {
+    if(stream == null) {
+      stream = path;
+      scanner.more();
+    }
+    target = build;
+    streamed = false;
+    while(!streamed) {
+      if(!next()) {
+        finish();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses the next token, and sends at most one event to the builder.
+   * @return result of scanner step
+   * @throws IOException I/O exception
+   */
+  private boolean next() throws IOException {
+    if(scanner.type == Type.TEXT) {
+      final byte[] text = scanner.token.toArray();
+      if(!elms.isEmpty() || fragment || !ws(text)) {
+        if(chops.peek()) scanner.token.trim();
+        if(builder != null) builder.text(scanner.token.toArray());
       }
-      if(!scanner.more()) break;
+    } else if(scanner.type == Type.COMMENT) {
+      if(builder != null) builder.comment(scanner.token.toArray());
+    } else if(scanner.type == Type.PI) {
+      if(builder != null) builder.pi(scanner.token.toArray());
+    } else if(scanner.type == Type.EOF) {
+      return false;
+    } else if(scanner.type != Type.DTD) {
+      // L_BR, L_BR_CLOSE
+      if(!fragment && closed) throw new BuildException(MOREROOTS, detailedInfo());
+      return parseElement();
     }
+    return scanner.more();
+  }
+
+  /**
+   * Finishes parsing.
+   * @throws IOException I/O exception
+   */
+  private void finish() throws IOException {
     scanner.close();
     if(!elms.isEmpty()) throw new BuildException(DOCOPEN, detailedInfo(), elms.pop());
   }
@@ -116,7 +170,8 @@ public class XMLParser extends SingleParser {
       if(!eq(open, name)) throw new BuildException(CLOSINGELEM, detailedInfo(), name, open);
       chops.pop();
 
-      builder.closeElem();
+      if(builder != null) builder.closeElem();
+      if(stream != null) closeStream();
       if(elms.isEmpty()) closed = true;
       return consume(Type.R_BR);
     }
@@ -160,15 +215,29 @@ public class XMLParser extends SingleParser {
       }
     }
 
+    // check if element will be streamed
+    final boolean opened = stream != null && builder == null && openStream(en);
+
     // send empty element to builder
     if(scanner.type == Type.CLOSE_R_BR) {
-      builder.emptyElem(en, atts, nsp);
+      if(builder != null) builder.emptyElem(en, atts, nsp);
+      if(opened) {
+        builder = null;
+        streamed = true;
+      }
       if(elms.isEmpty()) closed = true;
       return scanner.more();
     }
 
     // send start element
-    builder.openElem(en, atts, nsp);
+    if(builder != null) {
+      builder.openElem(en, atts, nsp);
+    } else if(stream != null) {
+      // remember namespaces of skipped element
+      nssizes.push(nss.size());
+      final int ns = nsp.size();
+      for(int n = 0; n < ns; n++) nss.add(nsp.name(n), nsp.value(n));
+    }
     elms.push(en);
     boolean c = chops.peek();
     if(chop) {
@@ -183,6 +252,41 @@ public class XMLParser extends SingleParser {
     return consume(Type.R_BR);
   }
 
+  /**
+   * Checks if the opened element will be streamed. If yes, namespaces declared by its ancestors
+   * will be added to the element, and the builder will be assigned.
+   * @param name element name
+   * @return result of check
+   */
+  private boolean openStream(final byte[] name) {
+    final int el = elms.size();
+    if(el + 1 != stream.length) return false;
+    for(int e = 0; e <= el; e++) {
+      final byte[] test = stream[e];
+      if(test != null && !eq(test, local(e == el ? name : elms.get(e)))) return false;
+    }
+    // inherit namespaces (innermost declarations first)
+    for(int n = nss.size() - 1; n >= 0; n--) {
+      final byte[] prefix = nss.name(n);
+      if(!nsp.contains(prefix)) nsp.add(prefix, nss.value(n));
+    }
+    builder = target;
+    level = el;
+    return true;
+  }
+
+  /**
+   * Closes a streamed or skipped element.
+   */
+  private void closeStream() {
+    if(builder == null) {
+      nss.size(nssizes.pop());
+    } else if(elms.size() == level) {
+      builder = null;
+      streamed = true;
+    }
+  }
+
   /**
    * Checks if the current token matches the specified type.
    * @param type token type to be checked
@@ -4,6 +4,7 @@ import org.basex.core.jobs.*;
 import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
+import org.basex.index.*;
 import org.basex.io.random.*;
 import org.basex.query.util.pkg.*;
 import org.basex.query.value.seq.*;
@@ -64,6 +65,9 @@ public final class Context {
   /** Focused node. */
   public int focused = -1;
 
+  /** Indicates if the process-wide caches have been configured. */
+  private static boolean configured;
+
   /**
    * Default constructor, which is usually called once in the lifetime of a project.
    */
@@ -127,6 +131,21 @@ public final class Context {
     user = users.get(UserText.ADMIN);
     jobs = new JobPool(soptions);
     client = null;
+    configure(soptions);
+  }
+
+  /**
+   * Configures the process-wide block pool, index caches and memory mapping. The options of the
+   * first main context are applied; the settings of subsequently created contexts are ignored,
+   * as the caches are shared by all opened databases.
+   * @param sopts static options
+   */
+  private static synchronized void configure(final StaticOptions sopts) {
+    if(configured) return;
+    configured = true;
+    BufferPool.size(sopts.get(StaticOptions.BUFFERPOOL));
+    MappedFile.enable(sopts.get(StaticOptions.MMAP));
+    IndexCache.size(sopts.get(StaticOptions.INDEXCACHE));
   }
 
   /**
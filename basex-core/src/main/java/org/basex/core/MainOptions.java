@@ -71,6 +71,11 @@ public final class MainOptions extends Options {
   /** Cache new documents before adding them to a database. */
   public static final BooleanOption ADDCACHE = new BooleanOption("ADDCACHE", false);
 
+  // Storage
+
+  /** Flag for compressing longer texts and attribute values with the LZ packer. */
+  public static final BooleanOption LZCOMPRESS = new BooleanOption("LZCOMPRESS", false);
+
   // Indexing
 
   /** Flag for creating a text index. */
@@ -166,6 +171,8 @@ public final class MainOptions extends Options {
 
   /** Flushes the database after each update. */
   public static final BooleanOption AUTOFLUSH = new BooleanOption("AUTOFLUSH", true);
+  /** Journals updates to restore the database if an update is interrupted. */
+  public static final BooleanOption JOURNAL = new BooleanOption("JOURNAL", false);
   /** Writes original files back after updates. */
   public static final BooleanOption WRITEBACK = new BooleanOption("WRITEBACK", false);
   /** Maximum number of index occurrences to print. */
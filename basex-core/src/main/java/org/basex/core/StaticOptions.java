@@ -31,8 +31,16 @@ public final class StaticOptions extends Options {
   public static final BooleanOption LANGKEYS = new BooleanOption("LANGKEYS", false);
   /** Locking strategy. */
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
+  /** Read snapshots of databases that are currently updated. */
+  public static final BooleanOption SNAPSHOTS = new BooleanOption("SNAPSHOTS", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Size of the shared buffer pool for database blocks (MB); deactivated if set to 0. */
+  public static final NumberOption BUFFERPOOL = new NumberOption("BUFFERPOOL", 32);
+  /** Memory-mapped read access to database tables and texts. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Maximum size of the cache for index entries, per index (MB); deactivated if set to 0. */
+  public static final NumberOption INDEXCACHE = new NumberOption("INDEXCACHE", 4);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -62,10 +70,18 @@ public final class StaticOptions extends Options {
 
   /** Timeout (seconds) for processing client requests; deactivated if set to 0. */
   public static final NumberOption TIMEOUT = new NumberOption("TIMEOUT", 30);
+  /** Idle time (seconds) after which suspended cursors are stopped; deactivated if set to 0. */
+  public static final NumberOption CURSORTIMEOUT = new NumberOption("CURSORTIMEOUT", 60);
+  /** Idle time (seconds) after which incomplete client requests are dropped; 0: deactivated. */
+  public static final NumberOption REQUESTTIMEOUT = new NumberOption("REQUESTTIMEOUT", 30);
   /** Keep alive time (seconds) for clients; deactivated if set to 0. */
   public static final NumberOption KEEPALIVE = new NumberOption("KEEPALIVE", 600);
   /** Defines the number of parallel readers. */
   public static final NumberOption PARALLEL = new NumberOption("PARALLEL", 8);
+  /** Maximum number of threads for processing client requests (0: one thread per client). */
+  public static final NumberOption SERVERTHREADS = new NumberOption("SERVERTHREADS", 0);
+  /** Maximum number of threads for parallel query evaluation (0: number of processors). */
+  public static final NumberOption WORKERS = new NumberOption("WORKERS", 0);
   /** Logging flag. */
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
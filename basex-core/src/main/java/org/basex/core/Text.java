@@ -176,6 +176,8 @@ public interface Text {
   String LI_SIZE = LI + "Size: ";
   /** Index info. */
   String LI_ENTRIES = LI + "Entries: ";
+  /** Index info. */
+  String LI_CACHE = LI + "Cache: ";
 
   /** Index info. */
   String HASH = "Hash";
@@ -188,6 +190,8 @@ public interface Text {
   String ITEMS = "Items";
   /** Context. */
   String CONTEXT = "Context";
+  /** Buffer pool. */
+  String BUFFER_POOL = "Buffer Pool";
 
   /** Options error. */
   String OPT_OFFSET_X = "List counter for '%' is invalid.";
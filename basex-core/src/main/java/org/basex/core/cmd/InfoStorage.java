@@ -1,5 +1,6 @@
 package org.basex.core.cmd;
 
+import static org.basex.core.Text.*;
 import static org.basex.util.Strings.*;
 
 import java.io.*;
@@ -39,6 +40,9 @@ public final class InfoStorage extends AInfo {
     }
     dp.add(start, end);
     out.print(dp.finish());
+    if(first.isEmpty() && data instanceof DiskData) {
+      out.print(NL + BUFFER_POOL + COL + NL + ((DiskData) data).bufferInfo());
+    }
     return true;
   }
 
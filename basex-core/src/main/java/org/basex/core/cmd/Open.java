@@ -91,8 +91,9 @@ public final class Open extends Command {
         // check if the addressed database exists
         if(!context.soptions.dbExists(name)) throw new BaseXException(DB_NOT_FOUND_X, name);
 
-        // do not open a database that is currently updated
+        // restore interrupted updates, do not open a database that is currently updated
         final MetaData meta = new MetaData(name, options, context.soptions);
+        meta.recover();
         if(meta.updateFile().exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
 
         // open database
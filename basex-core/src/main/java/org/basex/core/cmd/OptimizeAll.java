@@ -108,6 +108,8 @@ public final class OptimizeAll extends ACreate {
     // adopt original index options
     options.set(MainOptions.MAXLEN, ometa.maxlen);
     options.set(MainOptions.MAXCATS, ometa.maxcats);
+    // adopt original storage options
+    options.set(MainOptions.LZCOMPRESS, ometa.lzcompress);
 
     // build database and index structures
     final StaticOptions sopts = context.soptions;
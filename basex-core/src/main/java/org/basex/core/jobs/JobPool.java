@@ -26,6 +26,10 @@ public final class JobPool {
   final Timer timer = new Timer(true);
   /** Timeout (ms). */
   private final long timeout;
+  /** Maximum number of worker threads. */
+  private final int parallelism;
+  /** Worker pool for parallel query evaluation (lazily instantiated). */
+  private ForkJoinPool workers;
 
   /**
    * Constructor.
@@ -33,6 +37,18 @@ public final class JobPool {
    */
   public JobPool(final StaticOptions sopts) {
     timeout = sopts.get(StaticOptions.CACHETIMEOUT) * 1000L;
+    final int w = sopts.get(StaticOptions.WORKERS);
+    parallelism = w > 0 ? w : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Returns the worker pool, which is shared by all jobs that evaluate expressions in parallel.
+   * Jobs that are stopped will also stop their parallel tasks.
+   * @return worker pool
+   */
+  public synchronized ForkJoinPool workers() {
+    if(workers == null) workers = new ForkJoinPool(parallelism);
+    return workers;
   }
 
   /**
@@ -60,6 +76,7 @@ public final class JobPool {
     timer.cancel();
     for(final Job job : active.values()) job.stop();
     while(!active.isEmpty()) Performance.sleep(1);
+    if(workers != null) workers.shutdownNow();
   }
 
   /**
@@ -81,6 +81,14 @@ public final class LockList implements Iterable<String> {
     }
   }
 
+  /**
+   * Removes a lock.
+   * @param lock lock to be removed
+   */
+  public void remove(final String lock) {
+    list.removeAll(lock);
+  }
+
   /**
    * Removes all locks from the specified list.
    * @param locks lock list
@@ -21,6 +21,15 @@ import org.basex.util.list.*;
  *
  * This class prevents locking deadlocks by sorting all strings.
  *
+ * Databases are the smallest unit of locking. The nodes of all documents of a database are
+ * stored in a single table and addressed by pre values, and the table, the text heaps and the
+ * index structures are shared by all documents. An update of a single document may shift the
+ * pre values of all subsequent documents, and it modifies shared pages and index entries.
+ * Locking single documents would therefore not protect readers of other documents.
+ *
+ * If {@link StaticOptions#SNAPSHOTS} is enabled, read-only queries do not wait for jobs that
+ * update a database: they read a snapshot of the database instead (see {@link Snapshots}).
+ *
  * Locks can only be released by the same thread which acquired it.
  *
  * Locking methods are not synchronized to each other. The user must make sure not to call them in
@@ -56,6 +65,8 @@ public final class Locking {
   private final ConcurrentMap<Long, Locks> locked = new ConcurrentHashMap<>();
   /** Lock queue. */
   private final LockQueue queue;
+  /** Database snapshots. */
+  private final Snapshots snapshots = new Snapshots();
 
   /** Global lock: exclusive lock for global writes, shared lock otherwise. */
   private final ReentrantReadWriteLock globalLocks;
@@ -92,11 +103,18 @@ public final class Locking {
     // prepare lock strings and acquire locks
     final Locks locks = job.jc().locks;
     locks.finish(ctx);
+    final boolean snapshot = ctx.soptions.get(StaticOptions.SNAPSHOTS);
+    // read-only queries: read snapshots of databases that are currently updated
+    if(snapshot && locks.snapshot && !locks.writes.locking() && !locks.reads.global()) {
+      snapshots.pin(locks, ctx);
+    }
     try {
       acquire(locks);
     } catch(final InterruptedException ex) {
       throw Util.notExpected("Thread was interrupted: %", ex);
     }
+    // create snapshots of the databases to be updated
+    if(snapshot && locks.writes.local()) snapshots.create(locks, ctx);
   }
 
   /**
@@ -153,6 +171,9 @@ public final class Locking {
     final LockList reads = locks.reads, writes = locks.writes;
     final boolean lock = reads.locking() || writes.locking();
 
+    // retract snapshots before the write locks are released
+    snapshots.release(locks);
+
     // release all local locks
     for(final String string : reads) unpin(string).readLock().unlock();
     for(final String string : writes) unpin(string).writeLock().unlock();
@@ -235,6 +256,7 @@ public final class Locking {
     sb.append(in).append("Held locks by job:").append(NL);
     locked.forEach((key, value) ->
       sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
+    sb.append(in).append("Snapshots: ").append(snapshots).append(NL);
     return sb.toString();
   }
 }
@@ -1,7 +1,10 @@
 package org.basex.core.locks;
 
+import java.util.*;
+
 import org.basex.core.*;
 import org.basex.data.*;
+import org.basex.util.*;
 
 /**
  * Read and write locks of a single job.
@@ -14,6 +17,11 @@ public final class Locks {
   public final LockList reads = new LockList();
   /** Write locks. */
   public final LockList writes = new LockList();
+  /** Indicates if read locks can be replaced with database snapshots. */
+  public boolean snapshot;
+
+  /** Snapshots created or pinned by the job. */
+  final ArrayList<Snapshot> snapshots = new ArrayList<>(0);
 
   /**
    * Finalizes locks. Replaces context references with current database, sorts entries,
@@ -34,6 +42,21 @@ public final class Locks {
     reads.remove(writes);
   }
 
+  /**
+   * Returns the snapshot of a database that has been pinned by a read-only job.
+   * @param name name of the database
+   * @return snapshot or {@code null}
+   */
+  public Snapshot snapshot(final String name) {
+    // snapshots created by an updating job are only read by other jobs
+    if(snapshot) {
+      for(final Snapshot sn : snapshots) {
+        if(Prop.CASE ? sn.name.equals(name) : sn.name.equalsIgnoreCase(name)) return sn;
+      }
+    }
+    return null;
+  }
+
   @Override
   public String toString() {
     return "Reads: " + reads + ", Writes: " + writes;
@@ -0,0 +1,74 @@
+package org.basex.core.locks;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+
+/**
+ * Read-only snapshot of a database, consisting of a copy of the database files that was created
+ * before the database was updated.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class Snapshot {
+  /** Name of the database. */
+  final String name;
+  /** Directory with the copied database files. */
+  final IOFile dir;
+  /** Number of jobs that read the snapshot. */
+  int pins;
+  /** Indicates if the snapshot has been retracted by the updating job. */
+  boolean retracted;
+
+  /** Opened database (lazy instantiation). */
+  private Data data;
+
+  /**
+   * Constructor.
+   * @param name name of the database
+   * @param dir directory with the copied database files
+   */
+  Snapshot(final String name, final IOFile dir) {
+    this.name = name;
+    this.dir = dir;
+  }
+
+  /**
+   * Returns the opened database instance. The instance is shared by all reading jobs.
+   * @param ctx database context
+   * @return database
+   * @throws IOException I/O exception
+   */
+  public synchronized Data data(final Context ctx) throws IOException {
+    if(data == null) data = new DiskData(new MetaData(name, dir, ctx.options));
+    return data;
+  }
+
+  /**
+   * Checks if the specified database instance belongs to this snapshot.
+   * @param dt database instance
+   * @return result of check
+   */
+  public synchronized boolean contains(final Data dt) {
+    return data == dt;
+  }
+
+  /**
+   * Closes the database and deletes the copied files.
+   */
+  synchronized void drop() {
+    if(data != null) {
+      data.close();
+      data = null;
+    }
+    dir.delete();
+  }
+
+  @Override
+  public String toString() {
+    return name + " (" + dir + ", pins: " + pins + ')';
+  }
+}
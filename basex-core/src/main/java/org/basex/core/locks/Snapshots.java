@@ -0,0 +1,136 @@
+package org.basex.core.locks;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Snapshots of databases that are currently updated (see {@link StaticOptions#SNAPSHOTS}).
+ *
+ * Before a job updates a database, the database files are copied. While the job is running,
+ * read-only queries that access the database will read the copy instead of waiting for the
+ * write lock. They see the state of the database before the update. The snapshot is retracted
+ * before the write lock is released, and the copy is deleted when the last reading job has
+ * finished.
+ *
+ * The costs of a snapshot are proportional to the size of the database. Snapshots are thus
+ * suited for databases of moderate size that are read frequently while they are updated.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class Snapshots {
+  /** Name of the directory with snapshots (relative to the database path). */
+  private static final String DIR = ".snapshots";
+
+  /** Published snapshots, indexed by the database name. */
+  private final HashMap<String, Snapshot> published = new HashMap<>();
+
+  /**
+   * Assigns snapshots to a read-only job. The read locks of databases with a published snapshot
+   * are removed, and the snapshots are pinned instead. The currently opened database of the
+   * client is always locked.
+   * @param locks locks of the job
+   * @param ctx database context of client
+   */
+  synchronized void pin(final Locks locks, final Context ctx) {
+    if(published.isEmpty()) return;
+
+    final Data data = ctx.data();
+    final LockList reads = locks.reads;
+    for(int r = reads.size() - 1; r >= 0; r--) {
+      final String name = reads.get(r);
+      final Snapshot snapshot = published.get(name);
+      if(snapshot == null || data != null && data.meta.name.equals(name)) continue;
+      snapshot.pins++;
+      locks.snapshots.add(snapshot);
+      reads.remove(name);
+    }
+  }
+
+  /**
+   * Creates and publishes snapshots of the databases that will be updated by a job.
+   * Must be called after the write locks have been acquired.
+   * @param locks locks of the job
+   * @param ctx database context of client
+   */
+  void create(final Locks locks, final Context ctx) {
+    final StaticOptions sopts = ctx.soptions;
+    for(final String name : locks.writes) {
+      if(!Databases.validName(name) || !sopts.dbExists(name)) continue;
+
+      // write pending changes of an opened database to disk
+      final Data data = ctx.datas.pin(name);
+      if(data != null) {
+        data.flush(true);
+        ctx.datas.unpin(data);
+      }
+
+      final IOFile root = new IOFile(sopts.dbPath(), DIR);
+      IOFile dir;
+      do {
+        dir = new IOFile(root, name + '_' + new Random().nextInt(0x7FFFFFFF));
+      } while(dir.exists());
+      try {
+        copy(sopts.dbPath(name), dir);
+      } catch(final IOException ex) {
+        // snapshot is optional: readers will wait for the write lock
+        Util.debug(ex);
+        dir.delete();
+        continue;
+      }
+
+      final Snapshot snapshot = new Snapshot(name, dir);
+      locks.snapshots.add(snapshot);
+      synchronized(this) {
+        published.put(name, snapshot);
+      }
+    }
+  }
+
+  /**
+   * Releases the snapshots of a job. Snapshots created by an updating job are retracted, and
+   * snapshots pinned by a reading job are unpinned. A snapshot is dropped if it has been
+   * retracted and is not read anymore.
+   * Must be called before the locks of the job are released.
+   * @param locks locks of the job
+   */
+  synchronized void release(final Locks locks) {
+    for(final Snapshot snapshot : locks.snapshots) {
+      if(locks.writes.contains(snapshot.name)) {
+        published.remove(snapshot.name);
+        snapshot.retracted = true;
+      } else {
+        snapshot.pins--;
+      }
+      if(snapshot.retracted && snapshot.pins == 0) snapshot.drop();
+    }
+    locks.snapshots.clear();
+  }
+
+  /**
+   * Copies the files of a database. Update markers and journals are skipped.
+   * @param source database directory
+   * @param target target directory
+   * @throws IOException I/O exception
+   */
+  private static void copy(final IOFile source, final IOFile target) throws IOException {
+    final String upd = DATAUPD + IO.BASEXSUFFIX, jrn = DATAJRN + IO.BASEXSUFFIX;
+    for(final String file : source.descendants()) {
+      if(!file.equals(upd) && !file.equals(jrn)) {
+        new IOFile(source, file).copyTo(new IOFile(target, file));
+      }
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return published.values().toString();
+  }
+}
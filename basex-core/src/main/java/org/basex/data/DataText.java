@@ -34,6 +34,8 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** LZ compression of texts. */
+  String DBLZCOMP = "LZCOMP";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
@@ -114,6 +116,8 @@ public interface DataText {
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Journal. */
+  String DATAJRN = "jrn";
 
   // XML SERIALIZATION ============================================================================
 
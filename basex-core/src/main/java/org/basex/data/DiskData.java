@@ -56,6 +56,8 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Journal of the current updates (can be {@code null}). */
+  private Journal journal;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -65,6 +67,9 @@ public final class DiskData extends Data {
   public DiskData(final MetaData meta) throws IOException {
     super(meta);
 
+    // restore original files if an update was interrupted
+    meta.recover();
+
     try(DataInput in = new DataInput(meta.dbfile(DATAINF))) {
       meta.read(in);
       while(true) {
@@ -125,6 +130,8 @@ public final class DiskData extends Data {
     table = new TableDiskAccess(meta, false);
     texts = new DataAccess(meta.dbfile(DATATXT));
     values = new DataAccess(meta.dbfile(DATAATV));
+    texts.map();
+    values.map();
   }
 
   /**
@@ -157,6 +164,7 @@ public final class DiskData extends Data {
     if(closed) return;
     super.close();
     try {
+      merge();
       write();
       table.close();
       texts.close();
@@ -165,6 +173,10 @@ public final class DiskData extends Data {
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      if(journal != null) {
+        journal.commit();
+        journal = null;
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -185,6 +197,8 @@ public final class DiskData extends Data {
 
   @Override
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
+    // index files are not journaled: commit pending changes
+    commit();
     // close existing index
     close(type);
     final IndexBuilder ib;
@@ -203,6 +217,8 @@ public final class DiskData extends Data {
 
   @Override
   public void dropIndex(final IndexType type) throws BaseXException {
+    // index files are not journaled: commit pending changes
+    commit();
     close(type);
     final Index index = index(type);
     if(index != null && !index.drop()) throw new BaseXException(INDEX_NOT_DROPPED_X, type);
@@ -232,6 +248,18 @@ public final class DiskData extends Data {
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
       if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
     }
+    if(opts.get(MainOptions.JOURNAL) && journal == null) {
+      try {
+        final Journal jrn = new Journal(meta.dbfile(DATAJRN));
+        jrn.file(meta.dbfile(DATAINF));
+        jrn.file(meta.dbfile(DATAIDP));
+        jrn.file(meta.dbfile(DATAPTH));
+        journal(jrn);
+        journal = jrn;
+      } catch(final IOException ex) {
+        throw new BaseXException(ex);
+      }
+    }
   }
 
   @Override
@@ -239,6 +267,8 @@ public final class DiskData extends Data {
     // OPTIMIZE ALL / db:optimize(..., true) will close the database before this function is called
     if(closed) return;
 
+    merge();
+
     // remove updating file
     final boolean auto = opts.get(MainOptions.AUTOFLUSH);
     if(auto) {
@@ -261,12 +291,61 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) textIndex.flush();
         if(attrIndex != null) attrIndex.flush();
+        if(tokenIndex != null) tokenIndex.flush();
+        if(journal != null) {
+          journal.commit();
+          journal(null);
+          journal = null;
+        }
       }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Merges pending changes into the updatable index structures.
+   */
+  private void merge() {
+    for(final ValueIndex index : new ValueIndex[] { textIndex, attrIndex, tokenIndex }) {
+      if(index instanceof UpdatableDiskValues) ((UpdatableDiskValues) index).merge();
+    }
+  }
+
+  /**
+   * Writes all pending changes to disk and commits the journal.
+   */
+  private void commit() {
+    if(journal != null) flush(true);
+  }
+
+  /**
+   * Assigns a journal to the table, the heap files and the updatable index structures.
+   * @param jrn journal (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private void journal(final Journal jrn) throws IOException {
+    ((TableDiskAccess) table).journal(jrn);
+    texts.journal(jrn);
+    values.journal(jrn);
+    for(final ValueIndex index : new ValueIndex[] { textIndex, attrIndex, tokenIndex }) {
+      if(index instanceof DiskValues) ((DiskValues) index).journal(jrn);
+    }
+  }
+
+  /**
+   * Returns information on the blocks of the table and heap files that have been
+   * retrieved from the shared buffer pool.
+   * @return info string
+   */
+  public String bufferInfo() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(' ').add(DATATBL).add(COLS).add(((TableDiskAccess) table).bufferInfo()).add(NL);
+    tb.add(' ').add(DATATXT).add(COLS).add(texts.bufferInfo()).add(NL);
+    tb.add(' ').add(DATAATV).add(COLS).add(values.bufferInfo()).add(NL);
+    return tb.toString();
+  }
+
   @Override
   public byte[] text(final int pre, final boolean text) {
     final long value = textRef(pre);
@@ -341,7 +420,7 @@ public final class DiskData extends Data {
       textRef(pre, v);
     } else {
       // otherwise, try to compress new value
-      final byte[] val = Compress.pack(value);
+      final byte[] val = Compress.pack(value, meta.lzcompress);
 
       // choose inserting position
       final long off;
@@ -369,7 +448,7 @@ public final class DiskData extends Data {
     if(inlined != 0) return inlined;
 
     // store text in heap file
-    final byte[] packed = Compress.pack(value);
+    final byte[] packed = Compress.pack(value, meta.lzcompress);
     final DataAccess store = text ? texts : values;
     final long offset = store.length();
     store.writeToken(offset, packed);
@@ -13,6 +13,7 @@ import org.basex.index.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.ft.*;
 import org.basex.util.list.*;
@@ -52,6 +53,8 @@ public final class MetaData {
   public boolean updindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for compressing texts with the LZ packer. */
+  public boolean lzcompress;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -119,8 +122,18 @@ public final class MetaData {
    * @param sopts static options
    */
   public MetaData(final String name, final MainOptions options, final StaticOptions sopts) {
+    this(name, sopts != null ? sopts.dbPath(name) : null, options);
+  }
+
+  /**
+   * Constructor for a database that is stored in the specified directory.
+   * @param name name of the database
+   * @param path database directory (can be {@code null})
+   * @param options database options
+   */
+  public MetaData(final String name, final IOFile path, final MainOptions options) {
     this.name = name;
-    path = sopts != null ? sopts.dbPath(name) : null;
+    this.path = path;
     createtext = options.get(MainOptions.TEXTINDEX);
     createattr = options.get(MainOptions.ATTRINDEX);
     createtoken = options.get(MainOptions.TOKENINDEX);
@@ -130,6 +143,7 @@ public final class MetaData {
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    lzcompress = options.get(MainOptions.LZCOMPRESS);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -271,6 +285,15 @@ public final class MetaData {
     return dbfile(DATAUPD);
   }
 
+  /**
+   * Restores the original database files if an update was interrupted, and deletes the file
+   * that indicates ongoing updates.
+   * @throws IOException I/O exception
+   */
+  public void recover() throws IOException {
+    if(Journal.recover(dbfile(DATAJRN))) updateFile().delete();
+  }
+
   /**
    * Returns a reference to the specified binary file.
    * @param pth internal file path
@@ -393,6 +416,7 @@ public final class MetaData {
         case DBFTDC:     diacritics = toBoolean(v); break;
         case DBUPDIDX:   updindex = toBoolean(v); break;
         case DBAUTOOPT:  autooptimize = toBoolean(v); break;
+        case DBLZCOMP:   lzcompress = toBoolean(v); break;
         case DBTXTIDX:   textindex = toBoolean(v); break;
         case DBATVIDX:   attrindex = toBoolean(v); break;
         case DBTOKIDX:   tokenindex = toBoolean(v); break;
@@ -436,6 +460,7 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBLZCOMP,   lzcompress);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
@@ -49,6 +49,11 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.uptodate; }
   },
   /** Property. */
+  LZCOMPRESS(false) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.lzcompress; }
+  },
+  /** Property. */
   INPUTPATH(false) {
     @Override
     public String value(final MetaData meta) { return meta.original; }
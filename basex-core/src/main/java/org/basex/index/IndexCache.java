@@ -2,48 +2,67 @@ package org.basex.index;
 
 import static org.basex.util.Token.*;
 
-import java.lang.ref.*;
-import java.util.concurrent.locks.*;
+import java.util.concurrent.atomic.*;
 
+import org.basex.core.*;
 import org.basex.util.*;
 
 /**
  * This class caches sizes and offsets from index results.
  *
+ * The cache is divided into segments, which are synchronized independently. The memory
+ * consumption of each segment is bounded by the {@link StaticOptions#INDEXCACHE} option.
+ * Entries are evicted by a generalized clock strategy: each entry has a small usage counter,
+ * which is incremented if the entry is requested, and decremented if the clock hand passes it.
+ * Entries will only be evicted if their counter is zero. As a result, keys that are frequently
+ * requested will not be displaced by keys that are only requested once.
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Dimitar Popov
  */
 public final class IndexCache {
-  /** Queue used to collect unused keys. */
-  private final ReferenceQueue<IndexEntry> queue = new ReferenceQueue<>();
-  /** Read-write lock. */
-  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
-  /** Hash table buckets. */
-  private BucketEntry[] buckets = new BucketEntry[Array.CAPACITY];
-  /** Number of entries in the cache. */
-  private int size;
+  /** Number of segments (must be 1 << n). */
+  private static final int SEGMENTS = 1 << 4;
+  /** Estimated memory consumption of a cached entry, excluding the key. */
+  private static final int OVERHEAD = 96;
+  /** Maximum value of the usage counter. */
+  private static final int USES = 3;
+  /** Maximum memory consumption of a segment (bytes). */
+  private static volatile long max;
+
+  /** Segments. */
+  private final Segment[] segments = new Segment[SEGMENTS];
+  /** Number of cache hits. */
+  private final AtomicLong hits = new AtomicLong();
+  /** Number of cache misses. */
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructor.
+   */
+  public IndexCache() {
+    for(int s = 0; s < SEGMENTS; s++) segments[s] = new Segment();
+  }
+
+  /**
+   * Assigns the maximum size of each index cache. Caching is disabled until a size is assigned
+   * by the main database context.
+   * @param mb size in megabytes (caching will be disabled if value is smaller than 1)
+   */
+  public static void size(final int mb) {
+    max = Math.max(0L, mb) * (1 << 20) / SEGMENTS;
+  }
 
   /**
    * Gets cached entry for the specified key.
    * @param key key
-   * @return cached entry or {@code null} if the entry is stale
+   * @return cached entry or {@code null} if the entry is not cached
    */
   public IndexEntry get(final byte[] key) {
-    final int hash = hash(key);
-    rwl.readLock().lock();
-
-    try {
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i];
-      while(e != null) {
-        final IndexEntry entry = e.get();
-        if(entry != null && e.hash == hash && eq(entry.key, key)) return entry;
-        e = e.next;
-      }
-    } finally {
-      rwl.readLock().unlock();
-    }
-    return null;
+    final int hash = spread(hash(key));
+    final IndexEntry entry = segment(hash).get(key, hash);
+    (entry != null ? hits : misses).incrementAndGet();
+    return entry;
   }
 
   /**
@@ -55,32 +74,8 @@ public final class IndexCache {
    * @return cache entry
    */
   public IndexEntry add(final byte[] key, final int count, final long offset) {
-    final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry current = buckets[i], prev = current;
-      while(current != null) {
-        final BucketEntry next = current.next;
-        final IndexEntry entry = current.get();
-        if(entry == null) {
-          delete(i, current, prev, next);
-        } else if(current.hash == hash && eq(entry.key, key)) {
-          update(entry, count, offset);
-          return entry;
-        }
-        prev = current;
-        current = next;
-      }
-
-      final IndexEntry entry = new IndexEntry(key, count, offset);
-      add(i, hash, entry);
-      return entry;
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    final int hash = spread(hash(key));
+    return segment(hash).add(key, hash, count, offset, max);
   }
 
   /**
@@ -88,143 +83,220 @@ public final class IndexCache {
    * @param key key
    */
   public void delete(final byte[] key) {
-    final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i], prev = e;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final IndexEntry entry = e.get();
-        if(entry == null) {
-          delete(i, e, prev, next);
-        } else if(e.hash == hash && eq(entry.key, key)) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = e;
-        e = next;
-      }
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    final int hash = spread(hash(key));
+    segment(hash).delete(key, hash);
   }
 
   /**
-   * Purges stale entries from the cache.
+   * Returns the number of cached entries.
+   * @return number of entries
    */
-  private void purge() {
-    for(Object x; (x = queue.poll()) != null;) {
-      final BucketEntry e = (BucketEntry) x;
-      final int i = indexFor(e.hash, buckets.length);
-      BucketEntry prev = buckets[i], p = prev;
-      while(p != null) {
-        final BucketEntry next = p.next;
-        if(p == e) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = p;
-        p = next;
-      }
-    }
+  public int size() {
+    int size = 0;
+    for(final Segment seg : segments) size += seg.size();
+    return size;
   }
 
   /**
-   * Add a new index entry to the bucket with the specified index.
-   * @param i bucket index
-   * @param hash hash of the new index key
-   * @param entry index entry
+   * Returns information on the cache.
+   * @return info string
    */
-  private void add(final int i, final int hash, final IndexEntry entry) {
-    buckets[i] = new BucketEntry(hash, buckets[i], entry, queue);
-    if(++size == buckets.length) rehash();
+  public String info() {
+    final long h = hits.get(), m = misses.get(), r = h + m == 0 ? 0 : h * 100 / (h + m);
+    return size() + " entries, " + h + " hits, " + m + " misses (" + r + "% hit rate)";
   }
 
   /**
-   * Update an existing index entry.
-   * @param entry index entry to update
-   * @param size new size
-   * @param offset new offset
+   * Returns the segment responsible for the specified hash value.
+   * @param hash hash value
+   * @return segment
    */
-  private static void update(final IndexEntry entry, final int size, final long offset) {
-    entry.size = size;
-    entry.offset = offset;
+  private Segment segment(final int hash) {
+    return segments[hash & SEGMENTS - 1];
   }
 
   /**
-   * Deletes a cached entry from the buckets with the specified index.
-   * @param i buckets index
-   * @param e cached entry to delete
-   * @param p previous cache entry
-   * @param n next cache entry
+   * Spreads the bits of a hash value.
+   * @param hash hash value
+   * @return new hash value
    */
-  private void delete(final int i, final BucketEntry e, final BucketEntry p, final BucketEntry n) {
-    if(p == e) buckets[i] = n;
-    else p.next = n;
-    e.next = null;
-    --size;
+  private static int spread(final int hash) {
+    return hash ^ hash >>> 16;
   }
 
-  /**
-   * Resizes the hash table.
-   */
-  private void rehash() {
-    purge();
-
-    final int s = size << 1;
-    final BucketEntry[] tmp = new BucketEntry[s];
-
-    final int l = buckets.length;
-    for(int i = 0; i < l; ++i) {
-      BucketEntry e = buckets[i];
-      buckets[i] = null;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final int p = indexFor(e.hash, tmp.length);
-        e.next = tmp[p];
-        tmp[p] = e;
-        e = next;
-      }
+  /** Cached entry. */
+  private static final class Node {
+    /** Index entry. */
+    final IndexEntry entry;
+    /** Hash value. */
+    final int hash;
+    /** Next node in hash bucket. */
+    Node next;
+    /** Position in the clock. */
+    int pos;
+    /** Usage counter. */
+    int uses;
+
+    /**
+     * Constructor.
+     * @param entry index entry
+     * @param hash hash value
+     */
+    Node(final IndexEntry entry, final int hash) {
+      this.entry = entry;
+      this.hash = hash;
     }
-    buckets = tmp;
   }
 
-  /**
-   * Returns buckets index for a hash code.
-   * @param h hash code
-   * @param n number of available buckets
-   * @return index of a buckets
-   */
-  private static int indexFor(final int h, final int n) {
-    return h & n - 1;
-  }
+  /** Synchronized cache segment. */
+  private static final class Segment {
+    /** Hash buckets. */
+    private Node[] buckets = new Node[1 << 4];
+    /** Clock (all nodes). */
+    private Node[] clock = new Node[1 << 4];
+    /** Position of the clock hand. */
+    private int hand;
+    /** Number of nodes. */
+    private int size;
+    /** Estimated memory consumption. */
+    private long bytes;
 
-  /**
-   * Cache buckets entry. Used to implement a linked list of cache entries for
-   * each buckets. It also stores the hash of the current entry for better
-   * performance.
-   */
-  private static class BucketEntry extends SoftReference<IndexEntry> {
-    /** Hash code of the stored cache entry key. */
-    final int hash;
-    /** Next buckets entry or {@code null} if the last one for this buckets. */
-    BucketEntry next;
+    /**
+     * Returns the number of nodes.
+     * @return size
+     */
+    synchronized int size() {
+      return size;
+    }
 
     /**
-     * Constructor.
-     * @param h hash code of the cache entry key
-     * @param n next buckets entry or {@code null} if the last one
-     * @param v stored cache entry
-     * @param rq reference queue
+     * Gets cached entry for the specified key.
+     * @param key key
+     * @param hash hash value
+     * @return cached entry or {@code null}
+     */
+    synchronized IndexEntry get(final byte[] key, final int hash) {
+      final Node n = find(key, hash);
+      if(n == null) return null;
+      if(n.uses < USES) n.uses++;
+      return n.entry;
+    }
+
+    /**
+     * Adds or updates a cache entry.
+     * @param key key
+     * @param hash hash value
+     * @param count number of index hits
+     * @param offset offset to id list
+     * @param m maximum memory consumption
+     * @return cache entry
+     */
+    synchronized IndexEntry add(final byte[] key, final int hash, final int count,
+        final long offset, final long m) {
+
+      Node n = find(key, hash);
+      if(n != null) {
+        n.entry.size = count;
+        n.entry.offset = offset;
+        return n.entry;
+      }
+
+      final IndexEntry entry = new IndexEntry(key, count, offset);
+      final long b = key.length + OVERHEAD;
+      if(b > m) return entry;
+
+      // evict entries until the new entry fits
+      while(bytes + b > m) evict();
+
+      n = new Node(entry, hash);
+      if(size == buckets.length) rehash();
+      final int i = n.hash >>> 4 & buckets.length - 1;
+      n.next = buckets[i];
+      buckets[i] = n;
+      if(size == clock.length) clock = Array.copy(clock, new Node[Array.newSize(size)]);
+      n.pos = size;
+      clock[size++] = n;
+      bytes += b;
+      return entry;
+    }
+
+    /**
+     * Deletes a cache entry.
+     * @param key key
+     * @param hash hash value
      */
-    BucketEntry(final int h, final BucketEntry n, final IndexEntry v,
-        final ReferenceQueue<IndexEntry> rq) {
-      super(v, rq);
-      hash = h;
-      next = n;
+    synchronized void delete(final byte[] key, final int hash) {
+      final Node n = find(key, hash);
+      if(n != null) remove(n);
+    }
+
+    /**
+     * Finds a node.
+     * @param key key
+     * @param hash hash value
+     * @return node or {@code null}
+     */
+    private Node find(final byte[] key, final int hash) {
+      for(Node n = buckets[hash >>> 4 & buckets.length - 1]; n != null; n = n.next) {
+        if(n.hash == hash && eq(n.entry.key, key)) return n;
+      }
+      return null;
+    }
+
+    /**
+     * Advances the clock hand until an unused node is found, and evicts this node.
+     */
+    private void evict() {
+      while(true) {
+        if(hand >= size) hand = 0;
+        final Node n = clock[hand];
+        if(n.uses == 0) {
+          remove(n);
+          return;
+        }
+        n.uses--;
+        hand++;
+      }
+    }
+
+    /**
+     * Removes a node.
+     * @param n node to be removed
+     */
+    private void remove(final Node n) {
+      final int i = n.hash >>> 4 & buckets.length - 1;
+      if(buckets[i] == n) {
+        buckets[i] = n.next;
+      } else {
+        Node p = buckets[i];
+        while(p.next != n) p = p.next;
+        p.next = n.next;
+      }
+      // move last node of the clock to the position of the removed node
+      final Node last = clock[--size];
+      clock[n.pos] = last;
+      last.pos = n.pos;
+      clock[size] = null;
+      bytes -= n.entry.key.length + OVERHEAD;
+    }
+
+    /**
+     * Doubles the number of hash buckets.
+     */
+    private void rehash() {
+      final int s = buckets.length << 1;
+      final Node[] tmp = new Node[s];
+      for(final Node bucket : buckets) {
+        Node n = bucket;
+        while(n != null) {
+          final Node next = n.next;
+          final int i = n.hash >>> 4 & s - 1;
+          n.next = tmp[i];
+          tmp[i] = n;
+          n = next;
+        }
+      }
+      buckets = tmp;
     }
   }
 }
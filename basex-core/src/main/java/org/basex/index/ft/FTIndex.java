@@ -214,6 +214,7 @@ public final class FTIndex extends ValueIndex {
     final long l = inX.length() + inY.length() + inZ.length();
     tb.add(LI_NAMES).add(data.meta.ftinclude).add(NL);
     tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
+    tb.add(LI_CACHE).add(cache.info()).add(NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
     addOccs(stats);
@@ -67,9 +67,11 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final byte[] info(final MainOptions options) {
+    prepare();
     final TokenBuilder tb = new TokenBuilder();
     tb.add(LI_STRUCTURE).add(SORTED_LIST).add(NL);
     tb.add(LI_NAMES).add(data.meta.names(type)).add(NL);
+    tb.add(LI_CACHE).add(cache.info()).add(NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
     synchronized(monitor) {
@@ -93,6 +95,7 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final IndexCosts costs(final IndexToken it) {
+    prepare();
     return IndexCosts.get(
       it instanceof StringRange ? Math.max(1, data.meta.size / 10) :
       it instanceof NumericRange ? Math.max(1, data.meta.size / 3) :
@@ -101,6 +104,7 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final IndexIterator iter(final IndexToken token) {
+    prepare();
     final IntList pres;
     if(token instanceof StringRange) {
       pres = idRange((StringRange) token);
@@ -148,6 +152,7 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final EntryIterator entries(final IndexEntries input) {
+    prepare();
     final byte[] key = input.get();
     if(key.length == 0) return allKeys(input.descending);
     if(input.prefix) return keysWithPrefix(key);
@@ -160,6 +165,23 @@ public class DiskValues extends ValueIndex {
     idxr.flush();
   }
 
+  /**
+   * Assigns a journal to the index files.
+   * @param journal journal (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  public final void journal(final Journal journal) throws IOException {
+    synchronized(monitor) {
+      idxl.journal(journal);
+      idxr.journal(journal);
+    }
+  }
+
+  /**
+   * Prepares the index structure for read access.
+   */
+  void prepare() { }
+
   /**
    * Returns the {@code pre} value for the specified id.
    * @param id id value
@@ -11,12 +11,25 @@ import org.basex.util.list.*;
  * This class provides access and update functions to attribute values and text contents stored on
  * disk. The data structure is described in the {@link DiskValuesBuilder} class.
  *
+ * Index changes are not written immediately. Instead, the added and deleted ids of all update
+ * operations are collected, and they are merged into the index structure in a single pass when
+ * the update is finished (see {@link #merge()}). Ids that are added and deleted again within the
+ * same update will be dropped without touching the index files.
+ *
+ * Keys of the index structure are not stored on disk: they are retrieved from the database,
+ * using the first id of each id list. Before an id is deleted, the key of its id list is cached,
+ * because the database text may change before the changes are merged.
+ *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
  */
 public final class UpdatableDiskValues extends DiskValues {
   /** Free slots. */
   private final FreeSlots free = new FreeSlots();
+  /** Ids to be added (can be {@code null}). */
+  private ValueCache adds;
+  /** Ids to be deleted (can be {@code null}). */
+  private ValueCache dels;
 
   /**
    * Constructor, initializing the index structure.
@@ -35,6 +48,73 @@ public final class UpdatableDiskValues extends DiskValues {
 
   @Override
   public synchronized void add(final ValueCache values) {
+    init();
+    final boolean token = type == IndexType.TOKEN;
+    for(final byte[] key : values) {
+      final IntList ids = values.ids(key), pos = values.pos(key);
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) {
+        final int id = ids.get(i);
+        // id was deleted before: restore existing entry (token positions may have changed)
+        if(!token && dels.remove(key, id)) continue;
+        adds.add(key, id, pos != null ? pos.get(i) : 0);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void delete(final ValueCache values) {
+    init();
+    for(final byte[] key : values) {
+      final IntList ids = values.ids(key);
+      final int is = ids.size();
+      boolean cache = true;
+      for(int i = 0; i < is; i++) {
+        final int id = ids.get(i);
+        // id was added before: skip entry
+        if(adds.remove(key, id)) continue;
+        // cache key of the affected index entry
+        if(cache) {
+          if(get(key) < 0) throw Util.notExpected("Key does not exist: '%'", key);
+          cache = false;
+        }
+        dels.add(key, id, 0);
+      }
+    }
+  }
+
+  /**
+   * Merges all pending changes into the index structure.
+   */
+  public synchronized void merge() {
+    if(adds == null) return;
+    final ValueCache a = adds, d = dels;
+    adds = null;
+    dels = null;
+    if(!d.isEmpty()) remove(d);
+    if(!a.isEmpty()) insert(a);
+  }
+
+  @Override
+  void prepare() {
+    if(adds != null) merge();
+  }
+
+  /**
+   * Initializes the caches for pending changes.
+   */
+  private void init() {
+    if(adds == null) {
+      adds = new ValueCache(type);
+      dels = new ValueCache(type);
+    }
+  }
+
+  /**
+   * Adds ids to the index.
+   * @param values value cache
+   */
+  private void insert(final ValueCache values) {
     // create a sorted list of the new keys and update the old keys
     final TokenList newKeys = new TokenList();
 
@@ -87,8 +167,11 @@ public final class UpdatableDiskValues extends DiskValues {
     size(sz + ns);
   }
 
-  @Override
-  public synchronized void delete(final ValueCache values) {
+  /**
+   * Removes ids from the index.
+   * @param values value cache
+   */
+  private void remove(final ValueCache values) {
     // create a list of the indexes of the keys which should be completely deleted
     final IntList keys = new IntList();
     int p = 0;
@@ -23,6 +23,14 @@ public final class ValueCache implements Iterable<byte[]> {
   /** Positions. */
   private final ArrayList<IntList> pos;
 
+  /**
+   * Constructor for an initially empty cache.
+   * @param type index type
+   */
+  ValueCache(final IndexType type) {
+    pos = type == IndexType.TOKEN ? new ArrayList<>() : null;
+  }
+
   /**
    * Caches the text and id for a node with specified pre value.
    * @param pre pre value
@@ -92,7 +100,17 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param data data reference
    */
   private void addId(final byte[] text, final int pre, final int ps, final Data data) {
-    final int i = keys.put(text) - 1;
+    add(text, data.id(pre), ps);
+  }
+
+  /**
+   * Adds a single id and position.
+   * @param key key
+   * @param id id
+   * @param ps position
+   */
+  void add(final byte[] key, final int id, final int ps) {
+    final int i = keys.put(key) - 1;
     final boolean exists = i < ids.size();
 
     IntList list;
@@ -102,7 +120,7 @@ public final class ValueCache implements Iterable<byte[]> {
       list = new IntList(1);
       ids.add(list);
     }
-    list.add(data.id(pre));
+    list.add(id);
 
     if(pos != null) {
       if(exists) {
@@ -116,12 +134,48 @@ public final class ValueCache implements Iterable<byte[]> {
   }
 
   /**
-   * Returns an iterator with all keys in sorted order.
+   * Removes a single id and its position.
+   * @param key key
+   * @param id id
+   * @return {@code true} if the id was found
+   */
+  boolean remove(final byte[] key, final int id) {
+    final int i = keys.id(key) - 1;
+    if(i == -1) return false;
+    final IntList list = ids.get(i);
+    final int s = list.size();
+    for(int l = 0; l < s; l++) {
+      if(list.get(l) == id) {
+        list.remove(l);
+        if(pos != null) pos.get(i).remove(l);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Indicates if the cache contains no ids.
+   * @return result of check
+   */
+  boolean isEmpty() {
+    for(final IntList list : ids) {
+      if(!list.isEmpty()) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns an iterator with all keys in sorted order. Keys without ids are skipped.
    * @return keys iterator
    */
   @Override
   public Iterator<byte[]> iterator() {
-    return new TokenList(keys).sort().iterator();
+    final TokenList list = new TokenList(keys.size());
+    for(final byte[] key : keys) {
+      if(!ids(key).isEmpty()) list.add(key);
+    }
+    return list.sort().iterator();
   }
 
   /**
@@ -109,6 +109,16 @@ public class BufferInput extends InputStream {
     return readByte();
   }
 
+  /**
+   * Returns the number of bytes that can be read without blocking.
+   * @return number of buffered bytes, plus the number of bytes available in the input stream
+   * @throws IOException I/O exception
+   */
+  @Override
+  public int available() throws IOException {
+    return bsize - bpos + (in != null ? in.available() : 0);
+  }
+
   /**
    * Returns the next unsigned byte.
    * {@code -1} is returned if all bytes have been read.
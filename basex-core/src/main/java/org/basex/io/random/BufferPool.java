@@ -0,0 +1,366 @@
+package org.basex.io.random;
+
+import org.basex.io.*;
+
+/**
+ * This class provides a process-wide pool for disk blocks, which is shared by all opened
+ * database files. It serves as second-level cache for the buffers of each file.
+ *
+ * The pool is divided into segments, which are synchronized independently. Blocks are managed
+ * by a segmented LRU strategy: new blocks are added to a probationary list, and they are only
+ * promoted to the protected list if they are requested again. As a result, blocks that are
+ * only accessed once (e.g., by a full scan of a large database) will not displace blocks that
+ * are accessed frequently. Prefetched blocks are only promoted if they are requested twice.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class BufferPool {
+  /** Number of segments (must be 1 << n). */
+  private static final int SEGMENTS = 1 << 4;
+  /** Segments. */
+  private static final Segment[] SEGS = new Segment[SEGMENTS];
+  /** Maximum number of blocks per segment. */
+  private static volatile int max;
+
+  static {
+    for(int s = 0; s < SEGMENTS; s++) SEGS[s] = new Segment();
+  }
+
+  /** Private constructor. */
+  private BufferPool() { }
+
+  /**
+   * Assigns the maximum size of the pool. The pool is disabled until a size is assigned by the
+   * main database context.
+   * @param mb size in megabytes (pool will be disabled if value is smaller than 1)
+   */
+  public static void size(final int mb) {
+    max = (int) Math.min(Integer.MAX_VALUE, Math.max(0L, mb) * (1 << 20) / IO.BLOCKSIZE / SEGMENTS);
+  }
+
+  /**
+   * Returns the number of blocks that are currently cached.
+   * @return number of blocks
+   */
+  public static int blocks() {
+    int blocks = 0;
+    for(final Segment seg : SEGS) blocks += seg.size();
+    return blocks;
+  }
+
+  /**
+   * Indicates if the pool is enabled.
+   * @return result of check
+   */
+  static boolean enabled() {
+    return max != 0;
+  }
+
+  /**
+   * Checks if a block is cached. The position of the block in the eviction lists is not changed.
+   * @param bm buffer manager
+   * @param pos block position
+   * @return result of check
+   */
+  static boolean contains(final Buffers bm, final long pos) {
+    return max != 0 && segment(bm, pos).contains(bm, pos);
+  }
+
+  /**
+   * Copies a cached block to the specified buffer.
+   * @param bm buffer manager
+   * @param bf buffer (its position must have been assigned)
+   * @return {@code true} if the block was found
+   */
+  static boolean get(final Buffers bm, final Buffer bf) {
+    return max != 0 && segment(bm, bf.pos).get(bm, bf);
+  }
+
+  /**
+   * Caches a copy of the specified buffer.
+   * @param bm buffer manager
+   * @param bf buffer
+   * @param prefetched indicates if the block has been prefetched
+   */
+  static void put(final Buffers bm, final Buffer bf, final boolean prefetched) {
+    final int m = max;
+    if(m != 0) segment(bm, bf.pos).put(bm, bf, prefetched, m);
+  }
+
+  /**
+   * Removes all blocks of the specified buffer manager.
+   * @param bm buffer manager
+   */
+  static void remove(final Buffers bm) {
+    if(bm.cached() != 0) {
+      for(final Segment seg : SEGS) seg.remove(bm);
+    }
+  }
+
+  /**
+   * Returns the segment responsible for the specified block.
+   * @param bm buffer manager
+   * @param pos block position
+   * @return segment
+   */
+  private static Segment segment(final Buffers bm, final long pos) {
+    return SEGS[hash(bm, pos) & SEGMENTS - 1];
+  }
+
+  /**
+   * Computes the hash value for the specified block.
+   * @param bm buffer manager
+   * @param pos block position
+   * @return hash value
+   */
+  private static int hash(final Buffers bm, final long pos) {
+    final int h = (int) (pos ^ pos >>> 32) * 31 + bm.hashCode();
+    return h ^ h >>> 16;
+  }
+
+  /** Cached block. */
+  private static final class Entry {
+    /** Block data. */
+    final byte[] data;
+    /** Buffer manager. */
+    Buffers bm;
+    /** Block position. */
+    long pos;
+    /** Hash value. */
+    int hash;
+    /** Next entry in hash bucket. */
+    Entry next;
+    /** Previous and next entry in list. */
+    Entry lprev, lnext;
+    /** Protected flag. */
+    boolean prot;
+    /** Prefetched flag (reset when the entry is requested for the first time). */
+    boolean prefetched;
+
+    /**
+     * Constructor.
+     * @param data block data
+     */
+    Entry(final byte[] data) {
+      this.data = data;
+    }
+  }
+
+  /** Synchronized pool segment. */
+  private static final class Segment {
+    /** Head of probationary list (most recently added entry comes first). */
+    private final Entry probation = list();
+    /** Head of protected list (most recently used entry comes first). */
+    private final Entry protect = list();
+    /** Hash buckets. */
+    private Entry[] buckets = new Entry[1 << 6];
+    /** Number of entries. */
+    private int size;
+    /** Number of protected entries. */
+    private int prot;
+
+    /**
+     * Returns the number of entries.
+     * @return size
+     */
+    synchronized int size() {
+      return size;
+    }
+
+    /**
+     * Checks if a block is cached.
+     * @param bm buffer manager
+     * @param pos block position
+     * @return result of check
+     */
+    synchronized boolean contains(final Buffers bm, final long pos) {
+      return find(bm, pos) != null;
+    }
+
+    /**
+     * Copies a cached block to the specified buffer.
+     * @param bm buffer manager
+     * @param bf buffer
+     * @return success flag
+     */
+    synchronized boolean get(final Buffers bm, final Buffer bf) {
+      final Entry e = find(bm, bf.pos);
+      if(e == null) return false;
+      System.arraycopy(e.data, 0, bf.data, 0, IO.BLOCKSIZE);
+      unlink(e);
+      if(e.prefetched) {
+        // first request of a prefetched entry: move it to the head of the probationary list
+        e.prefetched = false;
+        link(probation, e);
+        return true;
+      }
+      // move entry to the head of the protected list
+      if(!e.prot) {
+        e.prot = true;
+        prot++;
+      }
+      link(protect, e);
+      demote(max);
+      return true;
+    }
+
+    /**
+     * Caches a copy of the specified buffer.
+     * @param bm buffer manager
+     * @param bf buffer
+     * @param prefetched indicates if the block has been prefetched
+     * @param m maximum number of entries
+     */
+    synchronized void put(final Buffers bm, final Buffer bf, final boolean prefetched,
+        final int m) {
+      Entry e = find(bm, bf.pos);
+      if(e == null) {
+        // reuse array of evicted entry, or create new entry
+        e = size < m ? null : evict();
+        e = new Entry(e != null ? e.data : new byte[IO.BLOCKSIZE]);
+        e.bm = bm;
+        e.pos = bf.pos;
+        e.hash = hash(bm, bf.pos);
+        e.prefetched = prefetched;
+        if(size == buckets.length) rehash();
+        final int b = e.hash >>> 4 & buckets.length - 1;
+        e.next = buckets[b];
+        buckets[b] = e;
+        link(probation, e);
+        size++;
+        bm.cached(1);
+        // trim segment if maximum size has been reduced
+        while(size > m) evict();
+      }
+      System.arraycopy(bf.data, 0, e.data, 0, IO.BLOCKSIZE);
+      demote(m);
+    }
+
+    /**
+     * Removes all blocks of the specified buffer manager.
+     * @param bm buffer manager
+     */
+    synchronized void remove(final Buffers bm) {
+      for(final Entry head : new Entry[] { probation, protect }) {
+        for(Entry e = head.lnext; e != head;) {
+          final Entry n = e.lnext;
+          if(e.bm == bm) delete(e);
+          e = n;
+        }
+      }
+    }
+
+    /**
+     * Finds an entry.
+     * @param bm buffer manager
+     * @param pos block position
+     * @return entry or {@code null}
+     */
+    private Entry find(final Buffers bm, final long pos) {
+      final int h = hash(bm, pos);
+      for(Entry e = buckets[h >>> 4 & buckets.length - 1]; e != null; e = e.next) {
+        if(e.hash == h && e.bm == bm && e.pos == pos) return e;
+      }
+      return null;
+    }
+
+    /**
+     * Moves least recently used protected entries to the probationary list
+     * if they take more than three quarters of the segment.
+     * @param m maximum number of entries
+     */
+    private void demote(final int m) {
+      final int pm = m - (m >>> 2);
+      while(prot > pm) {
+        final Entry e = protect.lprev;
+        unlink(e);
+        e.prot = false;
+        prot--;
+        link(probation, e);
+      }
+    }
+
+    /**
+     * Evicts the least recently used entry.
+     * Probationary entries will be evicted first.
+     * @return evicted entry
+     */
+    private Entry evict() {
+      final Entry e = probation.lnext != probation ? probation.lprev : protect.lprev;
+      delete(e);
+      return e;
+    }
+
+    /**
+     * Deletes an entry.
+     * @param e entry to be deleted
+     */
+    private void delete(final Entry e) {
+      final int b = e.hash >>> 4 & buckets.length - 1;
+      if(buckets[b] == e) {
+        buckets[b] = e.next;
+      } else {
+        Entry p = buckets[b];
+        while(p.next != e) p = p.next;
+        p.next = e.next;
+      }
+      unlink(e);
+      if(e.prot) prot--;
+      size--;
+      e.bm.cached(-1);
+      e.bm = null;
+    }
+
+    /**
+     * Doubles the number of hash buckets.
+     */
+    private void rehash() {
+      final int s = buckets.length << 1;
+      final Entry[] tmp = new Entry[s];
+      for(final Entry bucket : buckets) {
+        Entry e = bucket;
+        while(e != null) {
+          final Entry n = e.next;
+          final int b = e.hash >>> 4 & s - 1;
+          e.next = tmp[b];
+          tmp[b] = e;
+          e = n;
+        }
+      }
+      buckets = tmp;
+    }
+
+    /**
+     * Creates the head of a circular list.
+     * @return list head
+     */
+    private static Entry list() {
+      final Entry head = new Entry(null);
+      head.lprev = head;
+      head.lnext = head;
+      return head;
+    }
+
+    /**
+     * Adds an entry after the specified list head.
+     * @param head list head
+     * @param e entry
+     */
+    private static void link(final Entry head, final Entry e) {
+      e.lprev = head;
+      e.lnext = head.lnext;
+      head.lnext.lprev = e;
+      head.lnext = e;
+    }
+
+    /**
+     * Removes an entry from its list.
+     * @param e entry
+     */
+    private static void unlink(final Entry e) {
+      e.lprev.lnext = e.lnext;
+      e.lnext.lprev = e.lprev;
+    }
+  }
+}
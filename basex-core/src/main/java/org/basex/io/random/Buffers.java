@@ -1,7 +1,10 @@
 package org.basex.io.random;
 
+import java.util.concurrent.atomic.*;
+
 /**
  * This class provides a simple, clock-based buffer management.
+ * Blocks that are not found in the buffers may be retrieved from the shared {@link BufferPool}.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
@@ -11,6 +14,12 @@ final class Buffers {
   private static final int BUFFERS = 1 << 4;
   /** Buffers. */
   private final Buffer[] buf = new Buffer[BUFFERS];
+  /** Number of blocks that have been retrieved from the buffer pool. */
+  private final AtomicLong hits = new AtomicLong();
+  /** Number of blocks that have been read from disk. */
+  private final AtomicLong misses = new AtomicLong();
+  /** Number of blocks stored in the buffer pool. */
+  private final AtomicInteger cached = new AtomicInteger();
   /** Current buffer offset. */
   private int off;
 
@@ -50,4 +59,73 @@ final class Buffers {
     off = o + 1 & BUFFERS - 1;
     return true;
   }
+
+  /**
+   * Tries to fill the specified buffer with a block from the buffer pool.
+   * If {@code false} is returned, the block must be read from disk.
+   * @param bf buffer (its position must have been assigned)
+   * @return success flag
+   */
+  boolean fetch(final Buffer bf) {
+    final boolean found = BufferPool.get(this, bf);
+    (found ? hits : misses).incrementAndGet();
+    return found;
+  }
+
+  /**
+   * Stores a copy of the specified buffer in the buffer pool.
+   * Must be called whenever a block has been read from or written to disk.
+   * @param bf buffer
+   */
+  void cache(final Buffer bf) {
+    BufferPool.put(this, bf, false);
+  }
+
+  /**
+   * Stores a copy of a prefetched buffer in the buffer pool.
+   * @param bf buffer
+   */
+  void prefetched(final Buffer bf) {
+    BufferPool.put(this, bf, true);
+  }
+
+  /**
+   * Checks if the specified block is stored in the buffer pool.
+   * @param pos block position
+   * @return result of check
+   */
+  boolean pooled(final long pos) {
+    return BufferPool.contains(this, pos);
+  }
+
+  /**
+   * Removes all blocks of this buffer manager from the buffer pool.
+   */
+  void release() {
+    BufferPool.remove(this);
+  }
+
+  /**
+   * Updates the number of pooled blocks.
+   * @param diff difference
+   */
+  void cached(final int diff) {
+    cached.addAndGet(diff);
+  }
+
+  /**
+   * Returns the number of pooled blocks.
+   * @return number of blocks
+   */
+  int cached() {
+    return cached.get();
+  }
+
+  /**
+   * Returns information on the pooled blocks.
+   * @return info string
+   */
+  String info() {
+    return hits.get() + " hits, " + misses.get() + " misses, " + cached.get() + " pooled blocks";
+  }
 }
@@ -1,6 +1,7 @@
 package org.basex.io.random;
 
 import java.io.*;
+import java.util.concurrent.*;
 
 import org.basex.io.*;
 import org.basex.util.*;
@@ -16,12 +17,26 @@ public final class DataAccess implements Closeable {
   private final Buffers bm = new Buffers();
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
+  /** File reference. */
+  private final IOFile file;
+  /** Journal (can be {@code null}). */
+  private Journal journal;
   /** File length. */
   private long length;
   /** Changed flag. */
   private boolean changed;
   /** Offset. */
   private int off;
+  /** Memory mapping of the unchanged full blocks of the file (can be {@code null}). */
+  private volatile MappedFile mapped;
+  /** Flag for requested memory mapping. */
+  private boolean map;
+  /** Indicates if the file can be read concurrently (no pending changes). */
+  private volatile boolean concurrent;
+  /** Version, incremented whenever concurrent access is enabled. */
+  private volatile int version;
+  /** Cursors for concurrent read access, owned by the reading threads. */
+  private final ConcurrentHashMap<Thread, Reader> readers = new ConcurrentHashMap<>();
 
   /**
    * Constructor, initializing the file reader.
@@ -29,12 +44,14 @@ public final class DataAccess implements Closeable {
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile file) throws IOException {
+    this.file = file;
     RandomAccessFile f = null;
     try {
       f = new RandomAccessFile(file.file(), "rw");
       length = f.length();
       raf = f;
       cursor(0);
+      concurrent(0);
     } catch(final IOException ex) {
       if(f != null) f.close();
       throw ex;
@@ -46,26 +63,70 @@ public final class DataAccess implements Closeable {
    */
   public synchronized void flush() {
     try {
+      if(journal != null) {
+        for(final Buffer b : bm.all()) {
+          if(b.dirty) journal.block(file, raf, b.pos);
+        }
+        if(changed) journal.truncate(file, raf, length);
+        journal.sync();
+      }
       for(final Buffer b : bm.all()) {
         if(b.dirty) writeBlock(b);
       }
       if(changed) {
+        // truncated parts of the file must not be mapped
+        if(mapped != null && length < mapped.size) unmap();
         raf.setLength(length);
         changed = false;
       }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
+    if(!concurrent) concurrent(cursor());
   }
 
   @Override
   public synchronized void close() {
     flush();
+    exclusive();
+    // files are only closed if no reader is left: the mapping is released right away
+    unmap();
+    readers.clear();
     try {
       raf.close();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
+    bm.release();
+  }
+
+  /**
+   * Assigns a journal. If a journal is assigned, the original contents of all blocks will be
+   * journaled before they are overwritten.
+   * @param jrn journal (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  public synchronized void journal(final Journal jrn) throws IOException {
+    if(jrn != null) jrn.length(file, raf.length());
+    journal = jrn;
+  }
+
+  /**
+   * Returns information on the pooled blocks.
+   * @return info string
+   */
+  public String bufferInfo() {
+    return bm.info();
+  }
+
+  /**
+   * Enables memory-mapped read access to the file, provided that the
+   * {@link org.basex.core.StaticOptions#MMAP} option is set. The mapping will be dropped when
+   * mapped blocks are overwritten, and it will be reassigned when all changes have been flushed.
+   */
+  public synchronized void map() {
+    map = true;
+    if(concurrent) concurrent(cursor());
   }
 
   /**
@@ -73,7 +134,7 @@ public final class DataAccess implements Closeable {
    * @return position in the file
    */
   public long cursor() {
-    return buffer(false).pos + off;
+    return concurrent ? reader().pos : buffer(false).pos + off;
   }
 
   /**
@@ -97,17 +158,23 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return integer value
    */
-  public synchronized byte read1(final long pos) {
-    cursor(pos);
-    return read1();
+  public byte read1(final long pos) {
+    if(concurrent) return reader().cursor(pos).read1();
+    synchronized(this) {
+      cursor(pos);
+      return read1();
+    }
   }
 
   /**
    * Reads a byte value.
    * @return integer value
    */
-  public synchronized byte read1() {
-    return (byte) read();
+  public byte read1() {
+    if(concurrent) return reader().read1();
+    synchronized(this) {
+      return (byte) read();
+    }
   }
 
   /**
@@ -115,17 +182,23 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return integer value
    */
-  public synchronized int read4(final long pos) {
-    cursor(pos);
-    return read4();
+  public int read4(final long pos) {
+    if(concurrent) return reader().cursor(pos).read4();
+    synchronized(this) {
+      cursor(pos);
+      return read4();
+    }
   }
 
   /**
    * Reads an integer value.
    * @return integer value
    */
-  public synchronized int read4() {
-    return (read() << 24) + (read() << 16) + (read() << 8) + read();
+  public int read4() {
+    if(concurrent) return reader().read4();
+    synchronized(this) {
+      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+    }
   }
 
   /**
@@ -133,17 +206,24 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return long value
    */
-  public synchronized long read5(final long pos) {
-    cursor(pos);
-    return read5();
+  public long read5(final long pos) {
+    if(concurrent) return reader().cursor(pos).read5();
+    synchronized(this) {
+      cursor(pos);
+      return read5();
+    }
   }
 
   /**
    * Reads a 5-byte value.
    * @return long value
    */
-  public synchronized long read5() {
-    return ((long) read() << 32) + ((long) read() << 24) + (read() << 16) + (read() << 8) + read();
+  public long read5() {
+    if(concurrent) return reader().read5();
+    synchronized(this) {
+      return ((long) read() << 32) + ((long) read() << 24) + (read() << 16) + (read() << 8) +
+          read();
+    }
   }
 
   /**
@@ -151,9 +231,12 @@ public final class DataAccess implements Closeable {
    * @param p text position
    * @return read num
    */
-  public synchronized int readNum(final long p) {
-    cursor(p);
-    return readNum();
+  public int readNum(final long p) {
+    if(concurrent) return reader().cursor(p).readNum();
+    synchronized(this) {
+      cursor(p);
+      return readNum();
+    }
   }
 
   /**
@@ -161,18 +244,24 @@ public final class DataAccess implements Closeable {
    * @param p text position
    * @return text as byte array
    */
-  public synchronized byte[] readToken(final long p) {
-    cursor(p);
-    return readToken();
+  public byte[] readToken(final long p) {
+    if(concurrent) return reader().cursor(p).readToken();
+    synchronized(this) {
+      cursor(p);
+      return readToken();
+    }
   }
 
   /**
    * Reads the next token from disk.
    * @return text as byte array
    */
-  public synchronized byte[] readToken() {
-    final int l = readNum();
-    return readBytes(l);
+  public byte[] readToken() {
+    if(concurrent) return reader().readToken();
+    synchronized(this) {
+      final int l = readNum();
+      return readBytes(l);
+    }
   }
 
   /**
@@ -181,9 +270,12 @@ public final class DataAccess implements Closeable {
    * @param len length
    * @return byte array
    */
-  public synchronized byte[] readBytes(final long pos, final int len) {
-    cursor(pos);
-    return readBytes(len);
+  public byte[] readBytes(final long pos, final int len) {
+    if(concurrent) return reader().cursor(pos).readBytes(len);
+    synchronized(this) {
+      cursor(pos);
+      return readBytes(len);
+    }
   }
 
   /**
@@ -191,7 +283,19 @@ public final class DataAccess implements Closeable {
    * @param len length
    * @return byte array
    */
-  public synchronized byte[] readBytes(final int len) {
+  public byte[] readBytes(final int len) {
+    if(concurrent) return reader().readBytes(len);
+    synchronized(this) {
+      return bytes(len);
+    }
+  }
+
+  /**
+   * Reads a number of bytes from the buffers.
+   * @param len length
+   * @return byte array
+   */
+  private byte[] bytes(final int len) {
     int l = len, ll = IO.BLOCKSIZE - off;
     final byte[] b = new byte[l];
     Array.copyToStart(buffer(false).data, off, Math.min(l, ll), b);
@@ -213,6 +317,10 @@ public final class DataAccess implements Closeable {
    * @param pos read position
    */
   public void cursor(final long pos) {
+    if(concurrent) {
+      reader().pos = pos;
+      return;
+    }
     off = (int) (pos & IO.BLOCKSIZE - 1);
     final long b = pos - off;
     if(!bm.cursor(b)) return;
@@ -221,9 +329,11 @@ public final class DataAccess implements Closeable {
     try {
       if(bf.dirty) writeBlock(bf);
       bf.pos = b;
-      raf.seek(bf.pos);
-      if(bf.pos < raf.length())
+      if(bf.pos < raf.length() && !bm.fetch(bf)) {
+        raf.seek(bf.pos);
         raf.readFully(bf.data, 0, (int) Math.min(length - bf.pos, IO.BLOCKSIZE));
+        bm.cache(bf);
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -233,17 +343,20 @@ public final class DataAccess implements Closeable {
    * Reads the next compressed number and returns it as integer.
    * @return next integer
    */
-  public synchronized int readNum() {
-    final int value = read();
-    switch(value & 0xC0) {
-    case 0:
-      return value;
-    case 0x40:
-      return (value - 0x40 << 8) + read();
-    case 0x80:
-      return (value - 0x80 << 24) + (read() << 16) + (read() << 8) + read();
-    default:
-      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+  public int readNum() {
+    if(concurrent) return reader().readNum();
+    synchronized(this) {
+      final int value = read();
+      switch(value & 0xC0) {
+      case 0:
+        return value;
+      case 0x40:
+        return (value - 0x40 << 8) + read();
+      case 0x80:
+        return (value - 0x80 << 24) + (read() << 16) + (read() << 8) + read();
+      default:
+        return (read() << 24) + (read() << 16) + (read() << 8) + read();
+      }
     }
   }
 
@@ -306,6 +419,7 @@ public final class DataAccess implements Closeable {
    * @param len token length
    */
   public void writeBytes(final byte[] buffer, final int offset, final int len) {
+    if(concurrent) exclusive();
     final int last = offset + len;
     int o = offset;
 
@@ -375,6 +489,7 @@ public final class DataAccess implements Closeable {
    * @param len file length
    */
   private synchronized void length(final long len) {
+    if(concurrent) exclusive();
     if(len != length) {
       changed = true;
       length = len;
@@ -388,6 +503,7 @@ public final class DataAccess implements Closeable {
    * @return next byte
    */
   private int read() {
+    if(concurrent) return reader().read();
     final Buffer bf = buffer();
     return bf.data[off++] & 0xFF;
   }
@@ -397,6 +513,7 @@ public final class DataAccess implements Closeable {
    * @param value byte to be written
    */
   private void write(final int value) {
+    if(concurrent) exclusive();
     final Buffer bf = buffer();
     bf.dirty = true;
     bf.data[off++] = (byte) value;
@@ -404,6 +521,60 @@ public final class DataAccess implements Closeable {
     if(nl > length) length(nl);
   }
 
+  /**
+   * Enables concurrent read access if no changes are pending.
+   * Concurrent readers use their own cursors, and they will not access the shared buffers.
+   * If requested and enabled, the file will be memory-mapped.
+   * @param pos current file position
+   */
+  private synchronized void concurrent(final long pos) {
+    if(changed) return;
+    for(final Buffer b : bm.all()) {
+      if(b.dirty) return;
+    }
+    if(map && MappedFile.enabled()) {
+      // map all full blocks if the file has not been mapped yet, or if it has grown considerably.
+      // appended bytes will be read from the buffers
+      try {
+        final long size = Math.min(length, raf.length()) & -IO.BLOCKSIZE;
+        final MappedFile m = mapped;
+        if(size > (m != null ? m.size << 1 : 0)) {
+          unmap();
+          mapped = new MappedFile(raf.getChannel(), size);
+        }
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    } else {
+      unmap();
+    }
+    version++;
+    concurrent = true;
+    reader().pos = pos;
+  }
+
+  /**
+   * Disables concurrent read access.
+   * The buffers will be positioned at the file position of the current thread.
+   */
+  private synchronized void exclusive() {
+    if(!concurrent) return;
+    final long pos = reader().pos;
+    concurrent = false;
+    cursor(pos);
+  }
+
+  /**
+   * Drops the memory mapping. It will be released when the last reader has left.
+   */
+  private synchronized void unmap() {
+    final MappedFile m = mapped;
+    if(m != null) {
+      mapped = null;
+      m.unpin();
+    }
+  }
+
   /**
    * Write a token to the file.
    * @param buffer buffer containing the token
@@ -422,9 +593,16 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
+    // overwritten blocks must not be mapped anymore
+    if(mapped != null && pos < mapped.size) unmap();
+    if(journal != null) {
+      journal.block(file, raf, pos);
+      journal.sync();
+    }
     raf.seek(pos);
     raf.write(buffer.data, 0, (int) len);
     buffer.dirty = false;
+    bm.cache(buffer);
   }
 
   /**
@@ -444,4 +622,233 @@ public final class DataAccess implements Closeable {
     if(next) cursor(bm.current().pos + IO.BLOCKSIZE);
     return bm.current();
   }
+
+  /**
+   * Returns the cursor of the current thread.
+   * @return cursor
+   */
+  private Reader reader() {
+    final Thread thread = Thread.currentThread();
+    Reader r = readers.get(thread);
+    if(r == null) {
+      // drop cursors of terminated threads
+      readers.keySet().removeIf(t -> !t.isAlive());
+      r = new Reader();
+      readers.put(thread, r);
+    }
+    return r;
+  }
+
+  /**
+   * Cursor for concurrent read access. Each thread reads blocks into its own buffer,
+   * or directly accesses the memory mapping.
+   */
+  private final class Reader {
+    /** Buffer. */
+    private final Buffer bf = new Buffer();
+    /** Memory mapping (only assigned while the reader accesses the file). */
+    private MappedFile mapped;
+    /** Version of the file. */
+    private int version = -1;
+    /** File position. */
+    private long pos;
+
+    /**
+     * Sets the file position.
+     * @param p file position
+     * @return self reference
+     */
+    Reader cursor(final long p) {
+      pos = p;
+      return this;
+    }
+
+    /**
+     * Reads a byte value.
+     * @return byte value
+     */
+    byte read1() {
+      enter();
+      try {
+        return (byte) next();
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads an integer value.
+     * @return integer value
+     */
+    int read4() {
+      enter();
+      try {
+        return (next() << 24) + (next() << 16) + (next() << 8) + next();
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads a 5-byte value.
+     * @return long value
+     */
+    long read5() {
+      enter();
+      try {
+        return ((long) next() << 32) + ((long) next() << 24) + (next() << 16) + (next() << 8) +
+            next();
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads the next compressed number and returns it as integer.
+     * @return next integer
+     */
+    int readNum() {
+      enter();
+      try {
+        return num();
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads the next token.
+     * @return text as byte array
+     */
+    byte[] readToken() {
+      enter();
+      try {
+        return bytes(num());
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads a number of bytes.
+     * @param len length
+     * @return byte array
+     */
+    byte[] readBytes(final int len) {
+      enter();
+      try {
+        return bytes(len);
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads the next byte.
+     * @return next byte
+     */
+    int read() {
+      enter();
+      try {
+        return next();
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Pins the current memory mapping. Resets the buffer if the file has been updated.
+     */
+    private void enter() {
+      final int v = DataAccess.this.version;
+      if(v != version) {
+        version = v;
+        bf.pos = -1;
+      }
+      final MappedFile m = DataAccess.this.mapped;
+      if(m != null && m.pin()) mapped = m;
+    }
+
+    /**
+     * Unpins the memory mapping.
+     */
+    private void exit() {
+      if(mapped != null) {
+        mapped.unpin();
+        mapped = null;
+      }
+    }
+
+    /**
+     * Reads the next compressed number and returns it as integer.
+     * @return next integer
+     */
+    private int num() {
+      final int value = next();
+      switch(value & 0xC0) {
+      case 0:
+        return value;
+      case 0x40:
+        return (value - 0x40 << 8) + next();
+      case 0x80:
+        return (value - 0x80 << 24) + (next() << 16) + (next() << 8) + next();
+      default:
+        return (next() << 24) + (next() << 16) + (next() << 8) + next();
+      }
+    }
+
+    /**
+     * Reads a number of bytes.
+     * @param len length
+     * @return byte array
+     */
+    private byte[] bytes(final int len) {
+      final byte[] b = new byte[len];
+      if(mapped != null && pos + len <= mapped.size) {
+        mapped.read(pos, b, 0, len);
+      } else {
+        for(int o = 0; o < len;) {
+          final int off = block(pos + o), l = Math.min(len - o, IO.BLOCKSIZE - off);
+          Array.copy(bf.data, off, l, b, o);
+          o += l;
+        }
+      }
+      pos += len;
+      return b;
+    }
+
+    /**
+     * Reads the next byte from the mapping or the buffer.
+     * @return next byte
+     */
+    private int next() {
+      final long p = pos++;
+      return (mapped != null && p < mapped.size ? mapped.read1(p) : bf.data[block(p)]) & 0xFF;
+    }
+
+    /**
+     * Reads the block containing the specified position and returns the offset in the block.
+     * @param p file position
+     * @return block offset
+     */
+    private int block(final long p) {
+      final int o = (int) (p & IO.BLOCKSIZE - 1);
+      final long b = p - o;
+      if(bf.pos != b) {
+        bf.pos = b;
+        if(b < length && !bm.fetch(bf)) {
+          try {
+            synchronized(raf) {
+              raf.seek(b);
+              raf.readFully(bf.data, 0, (int) Math.min(length - b, IO.BLOCKSIZE));
+            }
+            bm.cache(bf);
+          } catch(final IOException ex) {
+            Util.stack(ex);
+          }
+        }
+      }
+      return o;
+    }
+  }
 }
@@ -0,0 +1,294 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * This class journals the original state of database files before they are modified in place.
+ *
+ * The journal contains the original lengths of files that are written block by block,
+ * the original contents of blocks that are overwritten, and copies of files that are rewritten
+ * as a whole. Each block is only journaled once. The journal is synchronized with the disk
+ * before modified blocks are written back. After all changes have been written and
+ * synchronized, the journal is deleted.
+ *
+ * If a database is opened and a journal exists, the previous update was interrupted, and the
+ * files are restored to their original state via {@link #recover(IOFile)}. Trailing records
+ * that have not been completely written are ignored: the corresponding blocks have not been
+ * overwritten yet.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class Journal {
+  /** Record type: original file length. */
+  private static final int LENGTH = 1;
+  /** Record type: original block contents. */
+  private static final int BLOCK = 2;
+  /** Record type: original file contents. */
+  private static final int FILE = 3;
+
+  /** Journal file. */
+  private final IOFile file;
+  /** File output stream. */
+  private final FileOutputStream fos;
+  /** Journal output. */
+  private final DataOutputStream out;
+  /** Original lengths of the files that are written block by block. */
+  private final HashMap<String, Long> lengths = new HashMap<>();
+  /** Journaled block positions. */
+  private final HashMap<String, HashSet<Long>> blocks = new HashMap<>();
+  /** Files that have been copied as a whole. */
+  private final HashSet<String> files = new HashSet<>();
+  /** Indicates if all records have been synchronized with the disk. */
+  private boolean synced = true;
+
+  /**
+   * Constructor, creating a new journal.
+   * @param file journal file
+   * @throws IOException I/O exception
+   */
+  public Journal(final IOFile file) throws IOException {
+    this.file = file;
+    fos = new FileOutputStream(file.file());
+    out = new DataOutputStream(new BufferedOutputStream(fos, IO.BLOCKSIZE));
+  }
+
+  /**
+   * Journals the contents of a file that will be rewritten as a whole.
+   * If the file does not exist yet, it will be deleted again when the journal is recovered.
+   * @param path file
+   * @throws IOException I/O exception
+   */
+  public synchronized void file(final IOFile path) throws IOException {
+    final String name = path.name();
+    if(!files.add(name)) return;
+
+    final boolean exists = path.exists();
+    final byte[] contents = exists ? path.read() : new byte[0];
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(contents.length + 32);
+    try(DataOutputStream dos = new DataOutputStream(bytes)) {
+      dos.writeUTF(name);
+      dos.writeBoolean(exists);
+      dos.write(contents);
+    }
+    record(FILE, bytes.toByteArray());
+  }
+
+  /**
+   * Journals the original length of a file that is written block by block.
+   * @param path file
+   * @param length file length
+   * @throws IOException I/O exception
+   */
+  synchronized void length(final IOFile path, final long length) throws IOException {
+    final String name = path.name();
+    if(lengths.containsKey(name)) return;
+
+    lengths.put(name, length);
+    blocks.put(name, new HashSet<>());
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(DataOutputStream dos = new DataOutputStream(bytes)) {
+      dos.writeUTF(name);
+      dos.writeLong(length);
+    }
+    record(LENGTH, bytes.toByteArray());
+  }
+
+  /**
+   * Journals the original contents of a block before it is overwritten.
+   * Blocks beyond the original file length are ignored.
+   * @param path file
+   * @param raf random access file
+   * @param pos position of the block
+   * @throws IOException I/O exception
+   */
+  synchronized void block(final IOFile path, final RandomAccessFile raf, final long pos)
+      throws IOException {
+
+    final String name = path.name();
+    final Long length = lengths.get(name);
+    if(length == null || pos >= length || !blocks.get(name).add(pos)) return;
+
+    final byte[] data = new byte[(int) Math.min(IO.BLOCKSIZE, length - pos)];
+    synchronized(raf) {
+      raf.seek(pos);
+      raf.readFully(data);
+    }
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length + 32);
+    try(DataOutputStream dos = new DataOutputStream(bytes)) {
+      dos.writeUTF(name);
+      dos.writeLong(pos);
+      dos.write(data);
+    }
+    record(BLOCK, bytes.toByteArray());
+  }
+
+  /**
+   * Journals all blocks that will be cut off if a file is truncated.
+   * @param path file
+   * @param raf random access file
+   * @param length new file length
+   * @throws IOException I/O exception
+   */
+  synchronized void truncate(final IOFile path, final RandomAccessFile raf, final long length)
+      throws IOException {
+
+    final Long original = lengths.get(path.name());
+    if(original == null) return;
+    for(long pos = length & -IO.BLOCKSIZE; pos < original; pos += IO.BLOCKSIZE) {
+      block(path, raf, pos);
+    }
+  }
+
+  /**
+   * Synchronizes all journal records with the disk. Must be called before journaled blocks
+   * are overwritten.
+   * @throws IOException I/O exception
+   */
+  synchronized void sync() throws IOException {
+    if(synced) return;
+    out.flush();
+    fos.getFD().sync();
+    synced = true;
+  }
+
+  /**
+   * Commits all changes: synchronizes the journaled files with the disk and deletes the journal.
+   * Must be called after all changes have been written.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    final IOFile dir = file.parent();
+    final HashSet<String> names = new HashSet<>(files);
+    names.addAll(lengths.keySet());
+    for(final String name : names) {
+      final IOFile path = new IOFile(dir, name);
+      if(!path.exists()) continue;
+      try(RandomAccessFile raf = new RandomAccessFile(path.file(), "rw")) {
+        raf.getFD().sync();
+      }
+    }
+    out.close();
+    if(!file.delete()) throw new IOException("Journal could not be deleted: " + file);
+  }
+
+  /**
+   * Restores the original state of all journaled files and deletes the journal.
+   * @param file journal file
+   * @return {@code true} if a journal existed and files were restored
+   * @throws IOException I/O exception
+   */
+  public static boolean recover(final IOFile file) throws IOException {
+    if(!file.exists()) return false;
+
+    final IOFile dir = file.parent();
+    final HashMap<String, RandomAccessFile> rafs = new HashMap<>();
+    final HashMap<String, Long> lengths = new HashMap<>();
+    try(DataInputStream in = new DataInputStream(new BufferedInputStream(
+        new FileInputStream(file.file()), IO.BLOCKSIZE))) {
+
+      final long max = file.length();
+      for(byte[] record; (record = read(in, max)) != null;) {
+        final int type = record[0];
+        try(DataInputStream dis = new DataInputStream(
+            new ByteArrayInputStream(record, 1, record.length - 1))) {
+          final String name = dis.readUTF();
+          final IOFile path = new IOFile(dir, name);
+          if(type == LENGTH) {
+            lengths.put(name, dis.readLong());
+          } else if(type == BLOCK) {
+            final long pos = dis.readLong();
+            final byte[] data = new byte[dis.available()];
+            dis.readFully(data);
+            RandomAccessFile raf = rafs.get(name);
+            if(raf == null) {
+              raf = new RandomAccessFile(path.file(), "rw");
+              rafs.put(name, raf);
+            }
+            raf.seek(pos);
+            raf.write(data);
+          } else {
+            final boolean exists = dis.readBoolean();
+            final byte[] data = new byte[dis.available()];
+            dis.readFully(data);
+            if(exists) {
+              try(RandomAccessFile raf = new RandomAccessFile(path.file(), "rw")) {
+                raf.setLength(0);
+                raf.write(data);
+                raf.getFD().sync();
+              }
+            } else {
+              path.delete();
+            }
+          }
+        }
+      }
+
+      // restore original lengths and synchronize restored files
+      for(final Map.Entry<String, Long> entry : lengths.entrySet()) {
+        final String name = entry.getKey();
+        RandomAccessFile raf = rafs.get(name);
+        if(raf == null) {
+          final IOFile path = new IOFile(dir, name);
+          if(!path.exists()) continue;
+          raf = new RandomAccessFile(path.file(), "rw");
+          rafs.put(name, raf);
+        }
+        raf.setLength(entry.getValue());
+      }
+      for(final RandomAccessFile raf : rafs.values()) raf.getFD().sync();
+    } finally {
+      for(final RandomAccessFile raf : rafs.values()) raf.close();
+    }
+    if(!file.delete()) throw new IOException("Journal could not be deleted: " + file);
+    return true;
+  }
+
+  /**
+   * Appends a record to the journal.
+   * @param type record type
+   * @param data record data
+   * @throws IOException I/O exception
+   */
+  private void record(final int type, final byte[] data) throws IOException {
+    final CRC32 crc = new CRC32();
+    crc.update(type);
+    crc.update(data);
+    out.writeByte(type);
+    out.writeInt(data.length);
+    out.write(data);
+    out.writeLong(crc.getValue());
+    synced = false;
+  }
+
+  /**
+   * Reads the next record from the journal.
+   * @param in input stream
+   * @param max maximum record size
+   * @return record (type, followed by the data), or {@code null} if no more valid records exist
+   * @throws IOException I/O exception
+   */
+  private static byte[] read(final DataInputStream in, final long max) throws IOException {
+    try {
+      final int type = in.read();
+      if(type != LENGTH && type != BLOCK && type != FILE) return null;
+      final int size = in.readInt();
+      if(size < 0 || size > max) return null;
+      final byte[] record = new byte[size + 1];
+      record[0] = (byte) type;
+      in.readFully(record, 1, size);
+      final CRC32 crc = new CRC32();
+      crc.update(record);
+      return crc.getValue() == in.readLong() ? record : null;
+    } catch(final EOFException ex) {
+      // incomplete record
+      Util.debug(ex);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.*;
+
+import org.basex.util.*;
+
+/**
+ * Read-only memory mapping of a database file. The file is mapped in segments, as a single
+ * mapping is limited to 2 GB. Memory-mapped read access will only be enabled if the
+ * {@link org.basex.core.StaticOptions#MMAP} option is set.
+ *
+ * The mapping is referenced by its owner and by the active readers. Readers pin the mapping
+ * while they access it. The mapped segments are released as soon as the owner has dropped
+ * the mapping and the last reader has left.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedFile {
+  /** Segment size (power of two, multiple of the block size). */
+  private static final int POWER = 30;
+  /** Segment mask. */
+  private static final int MASK = (1 << POWER) - 1;
+
+  /** Flag for enabling memory mapping. */
+  private static volatile boolean enabled;
+  /** Method for releasing memory mappings (Java 9 and later). */
+  private static Method invokeCleaner;
+  /** Instance for releasing memory mappings (Java 9 and later). */
+  private static Object unsafe;
+
+  static {
+    try {
+      final Class<?> clazz = Class.forName("sun.misc.Unsafe");
+      final Field field = clazz.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+      invokeCleaner = clazz.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch(final Exception ex) {
+      // Java 8: cleaner will be retrieved from the mapped buffer
+      Util.debug(ex);
+    }
+  }
+
+  /** Mapped segments. */
+  private final MappedByteBuffer[] segments;
+  /** Number of references: owner and active readers ({@code 0}: segments are released). */
+  private final AtomicInteger refs = new AtomicInteger(1);
+  /** Number of mapped bytes. */
+  final long size;
+
+  /**
+   * Constructor.
+   * @param channel file channel
+   * @param size number of bytes to be mapped
+   * @throws IOException I/O exception
+   */
+  MappedFile(final FileChannel channel, final long size) throws IOException {
+    this.size = size;
+    final int sl = (int) (size + MASK >>> POWER);
+    segments = new MappedByteBuffer[sl];
+    try {
+      for(int s = 0; s < sl; s++) {
+        final long pos = (long) s << POWER;
+        segments[s] = channel.map(MapMode.READ_ONLY, pos, Math.min(size - pos, 1 << POWER));
+      }
+    } catch(final IOException ex) {
+      release();
+      throw ex;
+    }
+  }
+
+  /**
+   * Pins the mapping for a reader.
+   * @return {@code false} if the mapping has already been released
+   */
+  boolean pin() {
+    for(int r; (r = refs.get()) > 0;) {
+      if(refs.compareAndSet(r, r + 1)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Unpins the mapping. Called by readers when they leave, and by the owner when it drops the
+   * mapping. The segments are released if no reference is left.
+   */
+  void unpin() {
+    if(refs.decrementAndGet() == 0) release();
+  }
+
+  /**
+   * Enables or disables memory mapping. Will be applied to subsequently opened files.
+   * @param enable flag
+   */
+  public static void enable(final boolean enable) {
+    enabled = enable;
+  }
+
+  /**
+   * Indicates if memory mapping is enabled.
+   * @return result of check
+   */
+  static boolean enabled() {
+    return enabled;
+  }
+
+  /**
+   * Reads a byte value.
+   * @param pos file offset
+   * @return byte value
+   */
+  byte read1(final long pos) {
+    return segments[(int) (pos >>> POWER)].get((int) pos & MASK);
+  }
+
+  /**
+   * Reads a short value and returns it as an integer value.
+   * @param pos file offset
+   * @return integer value
+   */
+  int read2(final long pos) {
+    return ((read1(pos) & 0xFF) << 8) + (read1(pos + 1) & 0xFF);
+  }
+
+  /**
+   * Reads an integer value.
+   * @param pos file offset
+   * @return integer value
+   */
+  int read4(final long pos) {
+    return ((read1(pos) & 0xFF) << 24) + ((read1(pos + 1) & 0xFF) << 16) +
+      ((read1(pos + 2) & 0xFF) << 8) + (read1(pos + 3) & 0xFF);
+  }
+
+  /**
+   * Reads a 5-byte value and returns it as a long value.
+   * @param pos file offset
+   * @return long value
+   */
+  long read5(final long pos) {
+    return ((long) (read1(pos) & 0xFF) << 32) + ((long) (read1(pos + 1) & 0xFF) << 24) +
+      ((read1(pos + 2) & 0xFF) << 16) + ((read1(pos + 3) & 0xFF) << 8) + (read1(pos + 4) & 0xFF);
+  }
+
+  /**
+   * Copies bytes to the specified array.
+   * @param pos file offset
+   * @param bytes target array
+   * @param off array offset
+   * @param len number of bytes
+   */
+  void read(final long pos, final byte[] bytes, final int off, final int len) {
+    long p = pos;
+    int o = off;
+    final int last = off + len;
+    while(o < last) {
+      final MappedByteBuffer segment = segments[(int) (p >>> POWER)];
+      final int i = (int) p & MASK, n = Math.min(last - o, (1 << POWER) - i);
+      for(int c = 0; c < n; c++) bytes[o + c] = segment.get(i + c);
+      p += n;
+      o += n;
+    }
+  }
+
+  /**
+   * Releases the mapped segments. Accessing a released mapping crashes the JVM: this function
+   * is only called if no reader has pinned the mapping.
+   */
+  private void release() {
+    for(int s = 0; s < segments.length; s++) {
+      final MappedByteBuffer segment = segments[s];
+      if(segment == null) continue;
+      segments[s] = null;
+      try {
+        if(invokeCleaner != null) {
+          invokeCleaner.invoke(unsafe, segment);
+        } else {
+          final Method m = segment.getClass().getMethod("cleaner");
+          m.setAccessible(true);
+          final Object cleaner = m.invoke(segment);
+          if(cleaner != null) cleaner.getClass().getMethod("clean").invoke(cleaner);
+        }
+      } catch(final Exception ex) {
+        // mapping will be released by the garbage collector
+        Util.debug(ex);
+      }
+    }
+  }
+}
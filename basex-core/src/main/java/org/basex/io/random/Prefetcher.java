@@ -0,0 +1,54 @@
+package org.basex.io.random;
+
+import java.util.concurrent.*;
+
+/**
+ * This class reads disk blocks into the shared {@link BufferPool} in the background.
+ * It is used to read ahead if database pages are accessed sequentially.
+ *
+ * A single daemon thread is used for all files. If the queue is full, new requests will be
+ * discarded: prefetching is an optimization, and readers will simply read missing blocks
+ * by themselves.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class Prefetcher {
+  /** Number of blocks to be read ahead. */
+  static final int BLOCKS = 16;
+  /** Minimum number of sequentially accessed blocks before blocks will be read ahead. */
+  static final int SEQUENTIAL = 2;
+  /** Maximum number of queued requests. */
+  private static final int QUEUE = 64;
+
+  /** Executor (single daemon thread). */
+  private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(1, 1,
+      1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(QUEUE), r -> {
+        final Thread thread = new Thread(r, "Prefetcher");
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.DiscardPolicy());
+
+  static {
+    EXECUTOR.allowCoreThreadTimeOut(true);
+  }
+
+  /** Private constructor. */
+  private Prefetcher() { }
+
+  /**
+   * Indicates if blocks can be prefetched.
+   * @return result of check
+   */
+  static boolean enabled() {
+    return BufferPool.enabled();
+  }
+
+  /**
+   * Submits a prefetch request.
+   * @param request request
+   */
+  static void submit(final Runnable request) {
+    EXECUTOR.execute(request);
+  }
+}
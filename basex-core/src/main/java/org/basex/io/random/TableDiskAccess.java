@@ -5,6 +5,7 @@ import static org.basex.data.DataText.*;
 import java.io.*;
 import java.nio.channels.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -29,6 +30,16 @@ public final class TableDiskAccess extends TableAccess {
   private BitArray usedPages;
   /** File lock. */
   private FileLock fl;
+  /** Memory mapping of the unchanged pages of the table (can be {@code null}). */
+  private volatile MappedFile mapped;
+  /** Journal (can be {@code null}). */
+  private Journal journal;
+  /** Indicates if the table can be read concurrently (no write lock, no pending changes). */
+  private volatile boolean concurrent;
+  /** Version, incremented whenever concurrent access is enabled. */
+  private volatile int version;
+  /** Cursors for concurrent read access, owned by the reading threads. */
+  private final ConcurrentHashMap<Thread, Reader> readers = new ConcurrentHashMap<>();
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fPreIndex;
@@ -79,6 +90,57 @@ public final class TableDiskAccess extends TableAccess {
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, md.name);
   }
 
+  /**
+   * Enables concurrent read access if no buffers are dirty.
+   * Concurrent readers use their own cursors, and they will not access the shared buffers.
+   * If enabled, the table file will be memory-mapped.
+   */
+  private void concurrent() {
+    for(final Buffer b : bm.all()) {
+      if(b.dirty) return;
+    }
+    if(MappedFile.enabled()) {
+      // map the table if it has not been mapped yet, or if it has grown considerably.
+      // new pages will be read from the buffers
+      try {
+        final long size = Math.min((long) pages * IO.BLOCKSIZE, file.length());
+        final MappedFile m = mapped;
+        if(size > (m != null ? m.size << 1 : 0)) {
+          unmap();
+          mapped = new MappedFile(file.getChannel(), size);
+        }
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    } else {
+      unmap();
+    }
+    version++;
+    concurrent = true;
+  }
+
+  /**
+   * Disables concurrent read access.
+   * Must be called before the table is updated.
+   */
+  private void exclusive() {
+    // wait for running prefetch requests
+    synchronized(file) {
+      concurrent = false;
+    }
+  }
+
+  /**
+   * Drops the memory mapping. It will be released when the last reader has left.
+   */
+  private void unmap() {
+    final MappedFile m = mapped;
+    if(m != null) {
+      mapped = null;
+      m.unpin();
+    }
+  }
+
   /**
    * Checks if the table of the specified database is locked.
    * @param db name of database
@@ -99,6 +161,12 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized void flush(final boolean all) throws IOException {
+    if(journal != null) {
+      for(final Buffer b : bm.all()) {
+        if(b.dirty) journal.block(meta.dbfile(DATATBL), file, b.pos * IO.BLOCKSIZE);
+      }
+      journal.sync();
+    }
     for(final Buffer b : bm.all()) write(b);
     if(!dirty || !all) return;
 
@@ -120,51 +188,89 @@ public final class TableDiskAccess extends TableAccess {
   @Override
   public synchronized void close() throws IOException {
     flush(true);
+    exclusive();
+    // tables are only closed if no reader is left: the mapping is released right away
+    unmap();
+    readers.clear();
     file.close();
+    bm.release();
+  }
+
+  /**
+   * Assigns a journal. If a journal is assigned, the original contents of all pages will be
+   * journaled before they are overwritten.
+   * @param jrn journal (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  public synchronized void journal(final Journal jrn) throws IOException {
+    if(jrn != null) {
+      jrn.length(meta.dbfile(DATATBL), file.length());
+      jrn.file(meta.dbfile(DATATBL + 'i'));
+    }
+    journal = jrn;
+  }
+
+  /**
+   * Returns information on the pooled blocks.
+   * @return info string
+   */
+  public String bufferInfo() {
+    return bm.info();
   }
 
   @Override
-  public boolean lock(final boolean write) {
+  public synchronized boolean lock(final boolean write) {
     try {
       if(fl != null) {
         if(write != fl.isShared()) return true;
         fl.release();
       }
+      exclusive();
       fl = file.getChannel().tryLock(0, Long.MAX_VALUE, !write);
-      return fl != null;
+      if(fl == null) return false;
+      // reading: all buffers have been flushed, enable concurrent access
+      if(!write) concurrent();
+      return true;
     } catch(final IOException ex) {
       throw Util.notExpected(ex);
     }
   }
 
   @Override
-  public synchronized int read1(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return b[o] & 0xFF;
+  public int read1(final int pre, final int off) {
+    if(concurrent) return reader().read1(pre, off);
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      final byte[] b = bm.current().data;
+      return b[o] & 0xFF;
+    }
   }
 
   @Override
-  public synchronized int read2(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+  public int read2(final int pre, final int off) {
+    if(concurrent) return reader().read2(pre, off);
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      return read2(bm.current().data, o);
+    }
   }
 
   @Override
-  public synchronized int read4(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
-      ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+  public int read4(final int pre, final int off) {
+    if(concurrent) return reader().read4(pre, off);
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      return read4(bm.current().data, o);
+    }
   }
 
   @Override
-  public synchronized long read5(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
-      ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+  public long read5(final int pre, final int off) {
+    if(concurrent) return reader().read5(pre, off);
+    synchronized(this) {
+      final int o = off + cursor(pre);
+      return read5(bm.current().data, o);
+    }
   }
 
   @Override
@@ -412,6 +518,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   protected void dirty() {
+    if(concurrent) exclusive();
     // initialize data structures required for performing updates
     if(fPreIndex == null) {
       fPreIndex = new int[pages];
@@ -442,30 +549,41 @@ public final class TableDiskAccess extends TableAccess {
    * @return offset of the entry in the page
    */
   private int cursor(final int pre) {
-    int fp = firstPre, np = nextPre;
-    if(pre < fp || pre >= np) {
-      final int last = used - 1;
-      int l = 0, h = last, m = page;
-      while(l <= h) {
-        if(pre < fp) h = m - 1;
-        else if(pre >= np) l = m + 1;
-        else break;
-        m = h + l >>> 1;
-        fp = fpre(m);
-        np = m == last ? meta.size : fpre(m + 1);
-      }
-      if(l > h) throw Util.notExpected(
-          "Data Access out of bounds:" +
-          "\n- pre value: " + pre +
-          "\n- table size: " + meta.size +
-          "\n- first/next pre value: " + fp + '/' + np +
-          "\n- #total/used pages: " + pages + '/' + used +
-          "\n- accessed page: " + m + " (" + l + " > " + h + ']');
-      readPage(m);
-    }
+    // shared buffers will be accessed (possibly for writing): disable concurrent access
+    if(concurrent) exclusive();
+    if(pre < firstPre || pre >= nextPre) readPage(page(pre, page, firstPre, nextPre));
     return pre - firstPre << IO.NODEPOWER;
   }
 
+  /**
+   * Returns the index of the page containing the entry for the specified pre value.
+   * @param pre pre of the entry to search for
+   * @param pg index of the page to start with
+   * @param fp first pre value of the start page
+   * @param np first pre value of the next page
+   * @return page index
+   */
+  private int page(final int pre, final int pg, final int fp, final int np) {
+    final int last = used - 1;
+    int l = 0, h = last, m = pg, f = fp, n = np;
+    while(l <= h) {
+      if(pre < f) h = m - 1;
+      else if(pre >= n) l = m + 1;
+      else break;
+      m = h + l >>> 1;
+      f = fpre(m);
+      n = m == last ? meta.size : fpre(m + 1);
+    }
+    if(l > h) throw Util.notExpected(
+        "Data Access out of bounds:" +
+        "\n- pre value: " + pre +
+        "\n- table size: " + meta.size +
+        "\n- first/next pre value: " + f + '/' + n +
+        "\n- #total/used pages: " + pages + '/' + used +
+        "\n- accessed page: " + m + " (" + l + " > " + h + ']');
+    return m;
+  }
+
   /**
    * Updates the page pointers.
    * @param p page index
@@ -507,9 +625,10 @@ public final class TableDiskAccess extends TableAccess {
       bf.pos = p;
       if(p >= pages) {
         pages = p + 1;
-      } else {
+      } else if(!bm.fetch(bf)) {
         file.seek(bf.pos * IO.BLOCKSIZE);
         file.readFully(bf.data);
+        bm.cache(bf);
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -524,9 +643,16 @@ public final class TableDiskAccess extends TableAccess {
   private void write(final Buffer bf) throws IOException {
     if(!bf.dirty) return;
 
+    if(journal != null) {
+      journal.block(meta.dbfile(DATATBL), file, bf.pos * IO.BLOCKSIZE);
+      journal.sync();
+    }
+    // overwritten pages must not be mapped anymore
+    if(mapped != null && bf.pos * IO.BLOCKSIZE < mapped.size) unmap();
     file.seek(bf.pos * IO.BLOCKSIZE);
     file.write(bf.data);
     bf.dirty = false;
+    bm.cache(bf);
   }
 
   /**
@@ -578,6 +704,69 @@ public final class TableDiskAccess extends TableAccess {
     return len;
   }
 
+  /**
+   * Returns a short value from the specified array.
+   * @param b byte array
+   * @param o offset
+   * @return integer value
+   */
+  private static int read2(final byte[] b, final int o) {
+    return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+  }
+
+  /**
+   * Returns an integer value from the specified array.
+   * @param b byte array
+   * @param o offset
+   * @return integer value
+   */
+  private static int read4(final byte[] b, final int o) {
+    return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
+      ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+  }
+
+  /**
+   * Returns a 5-byte value from the specified array.
+   * @param b byte array
+   * @param o offset
+   * @return long value
+   */
+  private static long read5(final byte[] b, final int o) {
+    return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
+      ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
+  }
+
+  /**
+   * Reads pages into the buffer pool in the background.
+   * Requests will be skipped if the table is updated in the meantime.
+   * @param from index of first page
+   * @param to index of last page (exclusive)
+   * @param v version of the table
+   */
+  private void prefetch(final int from, final int to, final int v) {
+    final int[] ps = new int[to - from];
+    for(int i = from; i < to; i++) ps[i - from] = pageIndex == null ? i : pageIndex[i];
+
+    Prefetcher.submit(() -> {
+      final Buffer bf = new Buffer();
+      for(final int p : ps) {
+        synchronized(file) {
+          if(!concurrent || version != v) return;
+          if(bm.pooled(p)) continue;
+          try {
+            file.seek((long) p * IO.BLOCKSIZE);
+            file.readFully(bf.data);
+          } catch(final IOException ex) {
+            Util.debug(ex);
+            return;
+          }
+          bf.pos = p;
+          bm.prefetched(bf);
+        }
+      }
+    });
+  }
+
   /**
    * Calculate the occupied space in a page.
    * @param i page index
@@ -586,4 +775,195 @@ public final class TableDiskAccess extends TableAccess {
   private int occSpace(final int i) {
     return (i + 1 < used ? fPreIndex[i + 1] : meta.size) - fPreIndex[i];
   }
+
+  /**
+   * Returns the cursor of the current thread.
+   * @return cursor
+   */
+  private Reader reader() {
+    final Thread thread = Thread.currentThread();
+    Reader r = readers.get(thread);
+    if(r == null) {
+      // drop cursors of terminated threads
+      readers.keySet().removeIf(t -> !t.isAlive());
+      r = new Reader();
+      readers.put(thread, r);
+    }
+    return r;
+  }
+
+  /**
+   * Cursor for concurrent read access. Each thread reads pages into its own buffer,
+   * or directly accesses the memory mapping.
+   */
+  private final class Reader {
+    /** Buffer with the contents of the last page that has been read from disk. */
+    private final Buffer bf = new Buffer();
+    /** Memory mapping (only assigned while the reader accesses the table). */
+    private MappedFile mapped;
+    /** Version of the table. */
+    private int version = -1;
+    /** Pointer to current page. */
+    private int page = -1;
+    /** Physical index of the current page. */
+    private long index = -1;
+    /** Pre value of the first entry in the current page. */
+    private int firstPre = -1;
+    /** First pre value of the next page. */
+    private int nextPre = -1;
+    /** Number of sequentially accessed pages. */
+    private int sequential;
+    /** Index of the last page that has been requested for prefetching. */
+    private int ahead = -1;
+
+    /**
+     * Reads a byte value.
+     * @param pre pre value
+     * @param off offset
+     * @return value
+     */
+    int read1(final int pre, final int off) {
+      enter();
+      try {
+        final int o = off + cursor(pre);
+        final MappedFile m = fetch();
+        return (m != null ? m.read1(index * IO.BLOCKSIZE + o) : bf.data[o]) & 0xFF;
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads a short value.
+     * @param pre pre value
+     * @param off offset
+     * @return value
+     */
+    int read2(final int pre, final int off) {
+      enter();
+      try {
+        final int o = off + cursor(pre);
+        final MappedFile m = fetch();
+        return m != null ? m.read2(index * IO.BLOCKSIZE + o) : TableDiskAccess.read2(bf.data, o);
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads an integer value.
+     * @param pre pre value
+     * @param off offset
+     * @return value
+     */
+    int read4(final int pre, final int off) {
+      enter();
+      try {
+        final int o = off + cursor(pre);
+        final MappedFile m = fetch();
+        return m != null ? m.read4(index * IO.BLOCKSIZE + o) : TableDiskAccess.read4(bf.data, o);
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Reads a 5-byte value.
+     * @param pre pre value
+     * @param off offset
+     * @return value
+     */
+    long read5(final int pre, final int off) {
+      enter();
+      try {
+        final int o = off + cursor(pre);
+        final MappedFile m = fetch();
+        return m != null ? m.read5(index * IO.BLOCKSIZE + o) : TableDiskAccess.read5(bf.data, o);
+      } finally {
+        exit();
+      }
+    }
+
+    /**
+     * Pins the current memory mapping. Resets the cursor if the table has been updated.
+     */
+    private void enter() {
+      final int v = TableDiskAccess.this.version;
+      if(v != version) {
+        version = v;
+        page = -1;
+        index = -1;
+        firstPre = -1;
+        nextPre = -1;
+        bf.pos = -1;
+        sequential = 0;
+        ahead = -1;
+      }
+      final MappedFile m = TableDiskAccess.this.mapped;
+      if(m != null && m.pin()) mapped = m;
+    }
+
+    /**
+     * Unpins the memory mapping.
+     */
+    private void exit() {
+      if(mapped != null) {
+        mapped.unpin();
+        mapped = null;
+      }
+    }
+
+    /**
+     * Searches for the page containing the entry for the specified pre value.
+     * Returns the offset of the entry inside the page.
+     * @param pre pre of the entry to search for
+     * @return offset of the entry in the page
+     */
+    private int cursor(final int pre) {
+      if(pre < firstPre || pre >= nextPre) {
+        final int p = page(pre, page, firstPre, nextPre);
+        if(p == page + 1) {
+          sequential++;
+        } else {
+          sequential = 0;
+          ahead = -1;
+        }
+        page = p;
+        index = pageIndex == null ? p : pageIndex[p];
+        firstPre = fpre(p);
+        nextPre = p + 1 >= used ? meta.size : fpre(p + 1);
+        // pages are accessed sequentially: read ahead
+        if(sequential >= Prefetcher.SEQUENTIAL && mapped == null && Prefetcher.enabled() &&
+            p + (Prefetcher.BLOCKS >>> 1) > ahead) {
+          final int from = Math.max(p, ahead) + 1, to = Math.min(p + Prefetcher.BLOCKS, used);
+          if(from < to) prefetch(from, to, version);
+          ahead = to - 1;
+        }
+      }
+      return pre - firstPre << IO.NODEPOWER;
+    }
+
+    /**
+     * Returns the memory mapping if it contains the current page.
+     * Otherwise, reads the page from the buffer pool or from disk.
+     * @return memory mapping or {@code null}
+     */
+    private MappedFile fetch() {
+      if(mapped != null && (index + 1) * IO.BLOCKSIZE <= mapped.size) return mapped;
+      if(bf.pos != index) {
+        bf.pos = index;
+        if(bm.fetch(bf)) return null;
+        try {
+          synchronized(file) {
+            file.seek(bf.pos * IO.BLOCKSIZE);
+            file.readFully(bf.data);
+          }
+          bm.cache(bf);
+        } catch(final IOException ex) {
+          Util.stack(ex);
+        }
+      }
+      return null;
+    }
+  }
 }
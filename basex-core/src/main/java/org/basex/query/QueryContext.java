@@ -7,6 +7,7 @@ import static org.basex.util.Token.*;
 import java.io.*;
 import java.util.*;
 import java.util.Map.*;
+import java.util.concurrent.*;
 
 import org.basex.build.json.*;
 import org.basex.build.json.JsonOptions.*;
@@ -400,6 +401,55 @@ public final class QueryContext extends Job implements Closeable {
     return iter.next();
   }
 
+  /**
+   * Evaluates a range of items in parallel. The range is partitioned into subranges, which are
+   * evaluated by the worker pool of the database context. Each subrange is evaluated with its own
+   * query context, which contains a copy of the current variable bindings and focus.
+   * @param <T> result type
+   * @param size number of items
+   * @param task task to be evaluated for each subrange
+   * @return results of the subranges, in their original order
+   * @throws QueryException query exception
+   */
+  public <T> ArrayList<T> parallel(final long size, final QueryTask<T> task)
+      throws QueryException {
+
+    final ArrayList<T> results = new ArrayList<>();
+    final ForkJoinPool pool = context.jobs.workers();
+    final int tasks = (int) Math.min(size, pool.getParallelism() << 2);
+    if(tasks < 2) {
+      results.add(task.eval(0, size, this));
+      return results;
+    }
+
+    // create query contexts in the current thread
+    final QueryContext[] qcs = new QueryContext[tasks];
+    final ArrayList<Callable<T>> calls = new ArrayList<>(tasks);
+    try {
+      for(int t = 0; t < tasks; t++) {
+        final QueryContext tqc = new QueryContext(this);
+        tqc.focus = focus.copy();
+        tqc.stack.enterFrame(stack);
+        qcs[t] = tqc;
+        final long start = size * t / tasks, end = size * (t + 1) / tasks;
+        calls.add(() -> task.eval(start, end, tqc));
+      }
+      for(final Future<T> future : pool.invokeAll(calls)) results.add(future.get());
+      return results;
+    } catch(final InterruptedException | ExecutionException ex) {
+      // pass on query and job exceptions
+      final Throwable e = Util.rootException(ex);
+      if(e instanceof QueryException) throw (QueryException) e;
+      if(e instanceof JobException) throw (JobException) e;
+      if(e instanceof RuntimeException) throw (RuntimeException) e;
+      throw Util.notExpected(e);
+    } finally {
+      for(int t = tasks; --t >= 0;) {
+        if(qcs[t] != null) qcs[t].close();
+      }
+    }
+  }
+
   /**
    * Returns a reference to the updates container.
    * @return updates container
@@ -415,6 +465,8 @@ public final class QueryContext extends Job implements Closeable {
     final LockList read = locks.reads, write = locks.writes;
     read.add(readLocks);
     write.add(writeLocks);
+    // databases that are currently updated can be read from snapshots
+    locks.snapshot = !updating;
     // use global locking if referenced databases cannot be statically determined
     if(root == null || !root.databases(locks, this) ||
        ctxItem != null && !ctxItem.databases(locks, this)) {
@@ -243,6 +243,8 @@ public enum QueryError {
   FETCH_OPEN_X(FETCH, "open", "%"),
   /** Error code. */
   FETCH_ENCODING_X(FETCH, "encoding", "Unknown encoding '%'."),
+  /** Error code. */
+  FETCH_PATH_X(FETCH, "path", "Path cannot be streamed: %."),
 
   // File Module
 
@@ -8,6 +8,7 @@ import java.util.*;
 import org.basex.build.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.*;
@@ -52,7 +53,7 @@ public final class QueryResources {
   /** External resources. */
   private final Map<Class<? extends QueryResource>, QueryResource> external = new HashMap<>();
   /** Input references. */
-  private final ArrayList<InputStream> inputs = new ArrayList<>(1);
+  private final ArrayList<Closeable> inputs = new ArrayList<>(1);
 
   /**
    * Constructor.
@@ -87,6 +88,7 @@ public final class QueryResources {
 
   /**
    * Closes all opened data references that have not been added by the global context.
+   * Snapshots are closed when they are dropped.
    */
   void close() {
     for(final Data data : datas) Close.close(data, qc.context);
@@ -98,9 +100,9 @@ public final class QueryResources {
     for(final QueryResource c : external.values()) c.close();
     external.clear();
     // close external resources
-    for(final InputStream is : inputs) {
+    for(final Closeable input : inputs) {
       try {
-        is.close();
+        input.close();
       } catch(final IOException ex) {
         Util.debug(ex);
       }
@@ -137,19 +139,19 @@ public final class QueryResources {
   }
 
   /**
-   * Adds an input stream reference.
-   * @param input input stream
+   * Adds an input reference.
+   * @param input input stream or other closeable input
    */
-  public synchronized void add(final InputStream input) {
+  public synchronized void add(final Closeable input) {
     inputs.add(input);
   }
 
   /**
-   * Closes and removes an input stream reference.
-   * @param input input stream
+   * Closes and removes an input reference.
+   * @param input input stream or other closeable input
    * @throws IOException I/O exception
    */
-  public synchronized void remove(final InputStream input) throws IOException {
+  public synchronized void remove(final Closeable input) throws IOException {
     inputs.remove(input);
     input.close();
   }
@@ -176,12 +178,25 @@ public final class QueryResources {
     // open and register database
     if(!ctx.perm(Perm.READ, name)) throw BASEX_PERMISSION_X_X.get(ii, Perm.READ, name);
     try {
-      return addData(Open.open(name, ctx, ctx.options));
+      return addData(open(name));
     } catch(final IOException ex) {
       throw DB_OPEN2_X.get(ii, ex);
     }
   }
 
+  /**
+   * Opens a database. If a snapshot of the database has been assigned to the query,
+   * the snapshot will be opened.
+   * @param name name of database
+   * @return database instance
+   * @throws IOException I/O exception
+   */
+  private Data open(final String name) throws IOException {
+    final Context ctx = qc.context;
+    final Snapshot snapshot = qc.jc().locks.snapshot(name);
+    return snapshot != null ? snapshot.data(ctx) : Open.open(name, ctx, ctx.options);
+  }
+
   /**
    * Evaluates {@code fn:doc()}: opens an existing database document, or creates a new
    * database and node.
@@ -384,8 +399,7 @@ public final class QueryResources {
     final String name = qi.dbName;
     if(name != null) {
       try {
-        final Context ctx = qc.context;
-        return addData(Open.open(name, ctx, ctx.options));
+        return addData(open(name));
       } catch(final IOException ex) {
         Util.debug(ex);
       }
@@ -0,0 +1,21 @@
+package org.basex.query;
+
+/**
+ * Task that evaluates a range of items and raises query exceptions.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ * @param <T> the type of the result of the task
+ */
+@FunctionalInterface
+public interface QueryTask<T> {
+  /**
+   * Evaluates the specified range.
+   * @param start index of the first item
+   * @param end index of the last item (exclusive)
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  T eval(long start, long end, QueryContext qc) throws QueryException;
+}
@@ -5,6 +5,7 @@ import static org.basex.query.QueryText.*;
 import java.util.function.*;
 
 import org.basex.query.*;
+import org.basex.query.expr.path.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.item.*;
@@ -20,6 +21,9 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 public final class And extends Logical {
+  /** Maximum ratio between the costs of intersected and the cheapest index access. */
+  private static final int INTERSECT = 4;
+
   /**
    * Constructor.
    * @param info input info
@@ -114,21 +118,41 @@ public final class And extends Logical {
 
   @Override
   public boolean indexAccessible(final IndexInfo ii) throws QueryException {
-    IndexCosts costs = IndexCosts.ZERO;
-    final ExprList list = new ExprList(exprs.length);
-    for(final Expr expr : exprs) {
+    // find cheapest index access
+    final int el = exprs.length;
+    final Expr[] access = new Expr[el];
+    final IndexCosts[] costs = new IndexCosts[el];
+    int min = -1;
+    for(int e = 0; e < el; e++) {
       // check if expression can be rewritten, and if access is not sequential
-      if(!expr.indexAccessible(ii)) return false;
+      ii.costs = null;
+      if(!exprs[e].indexAccessible(ii)) continue;
       // skip queries with no results
       if(ii.costs.results() == 0) return true;
-      // summarize costs
-      costs = IndexCosts.add(costs, ii.costs);
-      list.add(ii.expr);
+      access[e] = ii.expr;
+      costs[e] = ii.costs;
+      if(min == -1 || costs[min].compareTo(costs[e]) > 0) min = e;
+    }
+    if(min == -1) return false;
+
+    // intersect index results with similar costs, filter results with remaining expressions
+    final int results = costs[min].results();
+    final ExprList list = new ExprList(el), rest = new ExprList(el);
+    for(int e = 0; e < el; e++) {
+      if(access[e] != null && (results < 0 || costs[e].results() <= (long) results * INTERSECT)) {
+        list.add(access[e]);
+      } else {
+        rest.add(exprs[e]);
+      }
+    }
+    Expr expr = list.size() == 1 ? list.get(0) : new Intersect(info, list.finish());
+    if(!rest.isEmpty()) {
+      expr = Path.get(info, expr, Step.get(info, Axis.SELF, KindTest.NOD,
+          new And(info, rest.finish())));
     }
-    // use summarized costs for estimation
-    ii.costs = costs;
-    // create intersection of all index requests
-    ii.expr = new Intersect(info, list.finish());
+    // intersection will not yield more results than the cheapest index access
+    ii.costs = costs[min];
+    ii.expr = expr;
     return true;
   }
 
@@ -182,8 +182,7 @@ public class CmpG extends Cmp {
         if(st1.zeroOrOne() && !st1.mayBeArray() && st2.zeroOrOne() && !st2.mayBeArray()) {
           // simple comparisons
           expr = new CmpSimpleG(expr1, expr2, op, coll, sc, info);
-        } else if(op == OpG.EQ && coll == null && (type1.isNumber() && type2.isNumber() ||
-            (type1.isStringOrUntyped() && type2.isStringOrUntyped())) && !st2.zeroOrOne()) {
+        } else if(hashable() && !st2.zeroOrOne()) {
           // hash-based comparisons
           expr = new CmpHashG(expr1, expr2, op, coll, sc, info);
         }
@@ -194,6 +193,17 @@ public class CmpG extends Cmp {
     return allAreValues(false) ? cc.preEval(expr) : cc.replaceWith(this, expr);
   }
 
+  /**
+   * Checks if the comparison can be evaluated by comparing hashed items.
+   * @return result of check
+   */
+  public boolean hashable() {
+    if(op != OpG.EQ || coll != null) return false;
+    final Type type1 = exprs[0].seqType().type, type2 = exprs[1].seqType().type;
+    return type1.isNumber() && type2.isNumber() ||
+        type1.isStringOrUntyped() && type2.isStringOrUntyped();
+  }
+
   @Override
   public Expr optimizeEbv(final CompileContext cc) {
     // e.g.: exists(...) = true() -> exists(...)
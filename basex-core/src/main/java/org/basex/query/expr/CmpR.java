@@ -215,6 +215,12 @@ public final class CmpR extends Single {
     // estimate costs
     ii.costs = ii.costs(data, nr);
     if(ii.costs == null) return false;
+    if(!ii.enforce()) {
+      // assume uniform distribution of values
+      final double range = key.max - key.min;
+      ii.costs = IndexCosts.get((int) Math.max(1, range == 0 ? key.count :
+        key.count * (nr.max - nr.min) / range));
+    }
 
     // skip if numbers are negative, doubles, or of different string length
     final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
@@ -3,6 +3,7 @@ package org.basex.query.expr;
 import static org.basex.query.QueryText.*;
 
 import org.basex.query.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
@@ -46,6 +47,8 @@ public final class Extension extends Single {
     } finally {
       pragma.finish(cc.qc, state);
     }
+    if(pragma instanceof BaseXPragma && ((BaseXPragma) pragma).parallel &&
+        expr instanceof GFLWOR) ((GFLWOR) expr).parallel(cc);
     return optimize(cc);
   }
 
@@ -2,9 +2,14 @@ package org.basex.query.expr;
 
 import static org.basex.query.QueryText.*;
 
+import java.util.*;
 import java.util.function.*;
 
+import org.basex.data.*;
+import org.basex.index.path.*;
+import org.basex.index.stats.*;
 import org.basex.query.*;
+import org.basex.query.expr.CmpG.*;
 import org.basex.query.expr.CmpV.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.expr.path.*;
@@ -291,6 +296,176 @@ public abstract class Preds extends Arr {
     return this;
   }
 
+  /**
+   * Reorders the predicates by their estimated selectivity: predicates that are expected to
+   * filter out more nodes will be evaluated first. The selectivity is estimated with the value
+   * statistics of the path index.
+   * @param nodes path nodes of the nodes to be filtered
+   * @param data data reference
+   * @param cc compilation context
+   */
+  public final void reorder(final ArrayList<PathNode> nodes, final Data data,
+      final CompileContext cc) {
+
+    final int el = exprs.length;
+    if(el < 2 || positional()) return;
+    for(final Expr expr : exprs) {
+      if(expr.has(Flag.NDT)) return;
+    }
+    final double count = count(nodes);
+    if(count == 0) return;
+
+    // unknown selectivity: assume that all nodes will be returned
+    final double[] sel = new double[el];
+    final Integer[] order = new Integer[el];
+    for(int e = 0; e < el; e++) {
+      final double matches = matches(exprs[e], nodes, data);
+      sel[e] = matches < 0 ? 1 : Math.min(1, matches / count);
+      order[e] = e;
+    }
+    Arrays.sort(order, (e1, e2) -> Double.compare(sel[e1], sel[e2]));
+
+    final Expr[] ordered = new Expr[el];
+    boolean changed = false;
+    for(int e = 0; e < el; e++) {
+      ordered[e] = exprs[order[e]];
+      changed |= order[e] != e;
+    }
+    if(changed) {
+      cc.info(OPTREORDER_X, this);
+      exprs = ordered;
+    }
+  }
+
+  /**
+   * Estimates the number of nodes that will be matched by the specified predicate.
+   * @param expr predicate
+   * @param nodes path nodes of the nodes to be filtered
+   * @param data data reference
+   * @return number of matched nodes, or {@code -1} if the number cannot be estimated
+   */
+  private static double matches(final Expr expr, final ArrayList<PathNode> nodes,
+      final Data data) {
+
+    // path: A[B]
+    if(expr instanceof AxisPath) {
+      final ArrayList<PathNode> result = nodes((AxisPath) expr, nodes, data);
+      return result != null ? count(result) : -1;
+    }
+
+    // equality comparison with static values: A[B = 'c'], A[@b = 'c']
+    if(expr instanceof CmpG && ((CmpG) expr).op == OpG.EQ) {
+      final Expr expr1 = ((CmpG) expr).exprs[0], expr2 = ((CmpG) expr).exprs[1];
+      final ArrayList<Stats> stats = stats(expr1, nodes, data);
+      if(stats == null || !(expr2 instanceof Value) || ((Value) expr2).size() > data.meta.maxcats)
+        return -1;
+
+      double matches = 0;
+      for(final Item item : (Value) expr2) {
+        if(!item.type.isStringOrUntyped() && !item.type.isNumber()) return -1;
+        final byte[] token;
+        try {
+          token = item.string(null);
+        } catch(final QueryException ex) {
+          Util.debug(ex);
+          return -1;
+        }
+        for(final Stats st : stats) {
+          if(st.values != null) {
+            // distinct values: return exact number of occurrences
+            matches += Math.max(0, st.values.get(token));
+          } else {
+            // skip numbers out of range
+            if(StatsType.isNumeric(st.type)) {
+              final double d = Token.toDouble(token);
+              if(d < st.min || d > st.max) continue;
+            }
+            // number of distinct values exceeds the maximum number of categories
+            matches += (double) st.count / data.meta.maxcats;
+          }
+        }
+      }
+      return matches;
+    }
+
+    // numeric range: A[B > 1], A[@b = 1 to 10]
+    if(expr instanceof CmpR) {
+      final CmpR cmp = (CmpR) expr;
+      final ArrayList<Stats> stats = stats(cmp.expr, nodes, data);
+      if(stats == null) return -1;
+
+      double matches = 0;
+      for(final Stats st : stats) {
+        if(!StatsType.isNumeric(st.type)) return -1;
+        final double min = Math.max(cmp.min, st.min), max = Math.min(cmp.max, st.max);
+        if(min <= max) matches += st.max == st.min ? st.count :
+          st.count * Math.min(1, (max - min) / (st.max - st.min));
+      }
+      return matches;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the statistics of the values addressed by the specified path.
+   * @param expr path expression
+   * @param nodes path nodes of the context nodes
+   * @param data data reference
+   * @return statistics, or {@code null} if they are not available
+   */
+  private static ArrayList<Stats> stats(final Expr expr, final ArrayList<PathNode> nodes,
+      final Data data) {
+
+    // context value: text nodes of the context nodes
+    final ArrayList<PathNode> result = expr instanceof ContextValue ? nodes :
+      expr instanceof AxisPath ? nodes((AxisPath) expr, nodes, data) : null;
+    if(result == null) return null;
+
+    final ArrayList<Stats> stats = new ArrayList<>();
+    for(final PathNode node : result) {
+      if(node.kind == Data.ELEM) {
+        for(final PathNode child : node.children) {
+          if(child.kind == Data.TEXT) stats.add(child.stats);
+        }
+      } else if(node.kind == Data.ATTR || node.kind == Data.TEXT) {
+        stats.add(node.stats);
+      } else {
+        return null;
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Returns the path nodes of a relative path.
+   * @param path path expression
+   * @param nodes path nodes of the context nodes
+   * @param data data reference
+   * @return path nodes, or {@code null} if they cannot be determined
+   */
+  private static ArrayList<PathNode> nodes(final AxisPath path, final ArrayList<PathNode> nodes,
+      final Data data) {
+
+    if(path.root != null) return null;
+    ArrayList<PathNode> result = nodes;
+    final int sl = path.steps.length;
+    for(int s = 0; s < sl && result != null; s++) {
+      result = path.step(s).nodes(result, data);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of occurrences of the specified path nodes.
+   * @param nodes path nodes
+   * @return number of occurrences
+   */
+  private static double count(final ArrayList<PathNode> nodes) {
+    double count = 0;
+    for(final PathNode node : nodes) count += node.stats.count;
+    return count;
+  }
+
   /**
    * Checks if the specified expression returns an empty sequence or a deterministic numeric value.
    * @param expr expression
@@ -30,6 +30,8 @@ public final class GFLWOR extends ParseExpr {
   public final LinkedList<Clause> clauses;
   /** Return expression. */
   public Expr rtrn;
+  /** Indicates if the tuples of the first for clause will be evaluated in parallel. */
+  private boolean parallel;
 
   /**
    * Constructor.
@@ -68,6 +70,8 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    if(parallel) return parallel(qc);
+
     final Eval eval = newEval();
     final ValueBuilder vb = new ValueBuilder(qc);
     while(eval.next(qc)) vb.add(rtrn.value(qc));
@@ -75,7 +79,9 @@ public final class GFLWOR extends ParseExpr {
   }
 
   @Override
-  public Iter iter(final QueryContext qc) {
+  public Iter iter(final QueryContext qc) throws QueryException {
+    if(parallel) return parallel(qc).iter();
+
     return new Iter() {
       private final Eval ev = newEval();
       private Iter sub = Empty.ITER;
@@ -95,6 +101,94 @@ public final class GFLWOR extends ParseExpr {
     };
   }
 
+  /**
+   * Evaluates the tuples of the first for clause in parallel.
+   * Each thread evaluates a range of items with its own query context, which contains a copy of
+   * the current variable bindings and focus. The results are concatenated in their original order.
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value parallel(final QueryContext qc) throws QueryException {
+    final For fr = (For) clauses.getFirst();
+    final Value input = fr.expr.value(qc);
+
+    // remaining clauses and return expression
+    final LinkedList<Clause> cls = new LinkedList<>(clauses.subList(1, clauses.size()));
+    final Expr expr = cls.isEmpty() ? rtrn : new GFLWOR(info, cls, rtrn);
+
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(final Value value : qc.parallel(input.size(), (start, end, tqc) -> {
+      final ValueBuilder tvb = new ValueBuilder(tqc);
+      for(long i = start; i < end; i++) tvb.add(bind(fr, input, i, expr, tqc));
+      return tvb.value();
+    })) {
+      vb.add(value);
+    }
+    return vb.value();
+  }
+
+  /**
+   * Binds the variables of a for clause and evaluates the specified expression.
+   * @param fr for clause
+   * @param input input value
+   * @param i index of the item
+   * @param expr expression to be evaluated
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private static Value bind(final For fr, final Value input, final long i, final Expr expr,
+      final QueryContext qc) throws QueryException {
+    qc.checkStop();
+    qc.set(fr.var, input.itemAt(i));
+    if(fr.pos != null) qc.set(fr.pos, Int.get(i + 1));
+    return expr.value(qc);
+  }
+
+  /**
+   * Enables the parallel evaluation of the first for clause, provided that this FLWOR
+   * expression only consists of for, let and where clauses, and that it is deterministic and
+   * non-updating.
+   * @param cc compilation context
+   */
+  public void parallel(final CompileContext cc) {
+    parallel = parallelizable();
+    if(parallel) cc.info(QueryText.OPTPARALLEL_X, (Supplier<?>) this::description);
+  }
+
+  /**
+   * Limits the number of results that will be requested from this expression.
+   * If the tuples are ordered, and if each tuple yields at least one result, only the tuples
+   * required for the requested results will be kept when sorting.
+   * @param max maximum number of requested results
+   * @param cc compilation context
+   */
+  public void limit(final long max, final CompileContext cc) {
+    if(!rtrn.seqType().oneOrMore()) return;
+    for(final ListIterator<Clause> iter = clauses.listIterator(clauses.size());
+        iter.hasPrevious();) {
+      final Clause clause = iter.previous();
+      if(clause instanceof OrderBy) {
+        cc.info(QueryText.OPTLIMIT_X, max);
+        ((OrderBy) clause).limit(max);
+        return;
+      }
+      // subsequent clauses must not change the number of tuples
+      if(!(clause instanceof Let || clause instanceof Count)) return;
+    }
+  }
+
+  /**
+   * Checks if the tuples of the first for clause can be evaluated in parallel.
+   * @return result of check
+   */
+  private boolean parallelizable() {
+    if(!(clauses.getFirst() instanceof For) || !isFLW() || has(Flag.NDT, Flag.UPD)) return false;
+    final For fr = (For) clauses.getFirst();
+    return !fr.empty && fr.score == null;
+  }
+
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
     final ListIterator<Clause> iter = clauses.listIterator();
@@ -122,6 +216,8 @@ public final class GFLWOR extends ParseExpr {
         unnestLets(cc) | mergeLastClause());
 
     mergeWheres();
+    aggregate(cc);
+    if(parallel && !clauses.isEmpty()) parallel = parallelizable();
 
     // replace with expression of 'return' clause if all clauses were removed
     Expr expr = this;
@@ -518,7 +614,16 @@ public final class GFLWOR extends ParseExpr {
           final Clause before = clauses.get(b4);
           if(before instanceof For) {
             final For fr = (For) before;
-            if(fr.toPredicate(cc, where.expr)) {
+            if(fors.remove(fr)) fr.expr = fr.expr.optimize(cc);
+            final Join join = Join.get(fr, where, clauses.subList(0, b4), cc);
+            if(join != null) {
+              // for $a in A for $b in B where $a = $b/k -> hash join
+              cc.info(QueryText.OPTJOIN_X, fr.var);
+              clauses.set(b4, join);
+              clauses.remove(newPos);
+              i--;
+              changed = true;
+            } else if(fr.toPredicate(cc, where.expr)) {
               // for $i in ('a', 'b') where $i return $i -> for $i in ('a', 'b')[.] return $i
               fors.add((For) before);
               clauses.remove(newPos);
@@ -709,6 +814,20 @@ public final class GFLWOR extends ParseExpr {
     return false;
   }
 
+  /**
+   * Assigns aggregate functions to the non-grouping variables of group by clauses.
+   * @param cc compilation context
+   */
+  private void aggregate(final CompileContext cc) {
+    final int cl = clauses.size();
+    for(int c = 0; c < cl; c++) {
+      final Clause clause = clauses.get(c);
+      if(clause instanceof GroupBy) {
+        ((GroupBy) clause).aggregate(clauses.subList(c + 1, cl), rtrn, cc);
+      }
+    }
+  }
+
   /**
    * Merges consecutive {@code where} clauses.
    */
@@ -841,7 +960,8 @@ public final class GFLWOR extends ParseExpr {
     // check if an outer clause can prevent the error
     while(iter.hasPrevious()) {
       final Clause b4 = iter.previous();
-      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where) {
+      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where ||
+          b4 instanceof Join) {
         iter.next();
         while(iter.hasNext()) {
           iter.next();
@@ -860,7 +980,9 @@ public final class GFLWOR extends ParseExpr {
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final LinkedList<Clause> cls = new LinkedList<>();
     for(final Clause clause : clauses) cls.add(clause.copy(cc, vm));
-    return copyType(new GFLWOR(info, cls, rtrn.copy(cc, vm)));
+    final GFLWOR flwor = new GFLWOR(info, cls, rtrn.copy(cc, vm));
+    flwor.parallel = parallel;
+    return copyType(flwor);
   }
 
   /**
@@ -921,7 +1043,7 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public void plan(final FElem plan) {
-    final FElem elem = planElem();
+    final FElem elem = parallel ? planElem(QueryText.PARALLEL, true) : planElem();
     for(final Clause clause : clauses) clause.plan(elem);
     rtrn.plan(elem);
     plan.add(elem);
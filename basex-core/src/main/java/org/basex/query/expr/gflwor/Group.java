@@ -12,8 +12,10 @@ import org.basex.query.value.item.*;
 final class Group {
   /** Grouping key, may contain {@code null} values. */
   final Item[] key;
-  /** Non-grouping variables. */
+  /** Non-grouping variables ({@code null} for variables whose values are aggregated). */
   final ValueBuilder[] ngv;
+  /** Partially aggregated values of non-grouping variables. */
+  final Value[] aggr;
   /** Overflow list. */
   Group next;
 
@@ -21,9 +23,11 @@ final class Group {
    * Constructor.
    * @param k grouping key
    * @param ng non-grouping variables
+   * @param ag partially aggregated values
    */
-  Group(final Item[] k, final ValueBuilder[] ng) {
+  Group(final Item[] k, final ValueBuilder[] ng, final Value[] ag) {
     key = k;
     ngv = ng;
+    aggr = ag;
   }
 }
@@ -3,9 +3,11 @@ package org.basex.query.expr.gflwor;
 import static org.basex.query.QueryText.*;
 
 import java.util.*;
+import java.util.List;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.func.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
@@ -24,12 +26,18 @@ import org.basex.util.hash.*;
  * @author Leo Woerteler
  */
 public final class GroupBy extends Clause {
+  /** Aggregate functions that can be applied to partial results. */
+  private static final Function[] AGGREGATES = {
+    Function.COUNT, Function.SUM, Function.MIN, Function.MAX
+  };
   /** Grouping specs. */
   private final GroupSpec[] specs;
   /** Non-grouping variable expressions. */
   private Expr[] preExpr;
   /** Non-grouping variables. */
   private Var[] post;
+  /** Aggregate function calls on non-grouping variables (entries can be {@code null}). */
+  private Expr[] aggr;
   /** Number of non-occluded grouping variables. */
   private final int nonOcc;
 
@@ -47,6 +55,7 @@ public final class GroupBy extends Clause {
     this.specs = specs;
     this.post = post;
     preExpr = Array.copy(pre, new Expr[pre.length]);
+    aggr = new Expr[pre.length];
     int n = 0;
     for(final GroupSpec spec : specs) {
       if(!spec.occluded) n++;
@@ -59,15 +68,17 @@ public final class GroupBy extends Clause {
    * @param specs grouping specs
    * @param pre pre-grouping expressions
    * @param post post-grouping variables
+   * @param aggr aggregate function calls
    * @param nonOcc number of non-occluded grouping variables
    * @param info input info
    */
-  private GroupBy(final GroupSpec[] specs, final Expr[] pre, final Var[] post, final int nonOcc,
-      final InputInfo info) {
+  private GroupBy(final GroupSpec[] specs, final Expr[] pre, final Var[] post, final Expr[] aggr,
+      final int nonOcc, final InputInfo info) {
     super(info, SeqType.ITEM_ZM, vars(specs, post));
     this.specs = specs;
     preExpr = pre;
     this.post = post;
+    this.aggr = aggr;
     this.nonOcc = nonOcc;
   }
 
@@ -110,7 +121,18 @@ public final class GroupBy extends Clause {
           }
         }
         final int pl = post.length;
-        for(int i = 0; i < pl; i++) qc.set(post[i], curr.ngv[i].value());
+        for(int i = 0; i < pl; i++) {
+          final Value value;
+          if(curr.ngv[i] != null) {
+            value = curr.ngv[i].value();
+          } else if(Function.COUNT.is(aggr[i])) {
+            // counted values: bind sequence with the same number of items
+            value = RangeSeq.get(1, ((Int) curr.aggr[i]).itr(), true);
+          } else {
+            value = curr.aggr[i];
+          }
+          qc.set(post[i], value);
+        }
         return true;
       }
 
@@ -158,9 +180,12 @@ public final class GroupBy extends Clause {
           if(grp == null) {
             // new group, add it to the list
             final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder(qc);
-            grp = new Group(key, ngs);
+            final Value[] ags = new Value[pl];
+            for(int n = 0; n < pl; n++) {
+              if(aggr[n] == null) ngs[n] = new ValueBuilder(qc);
+              else ags[n] = Function.COUNT.is(aggr[n]) ? Int.ZERO : Empty.SEQ;
+            }
+            grp = new Group(key, ngs, ags);
             grps.add(grp);
 
             // insert the group into the hash table
@@ -174,7 +199,28 @@ public final class GroupBy extends Clause {
           }
 
           // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) grp.ngv[g].add(preExpr[g].value(qc));
+          for(int g = 0; g < pl; g++) {
+            final Value value = preExpr[g].value(qc);
+            final Expr ag = aggr[g];
+            if(grp.ngv[g] != null) {
+              grp.ngv[g].add(value);
+            } else if(Function.COUNT.is(ag)) {
+              grp.aggr[g] = Int.get(((Int) grp.aggr[g]).itr() + value.size());
+            } else if(!value.isEmpty()) {
+              // aggregate new values and the previous result
+              final Value values = ValueBuilder.concat(grp.aggr[g], value, qc);
+              qc.set(post[g], values);
+              try {
+                grp.aggr[g] = ag.value(qc);
+              } catch(final QueryException ex) {
+                // values cannot be aggregated: bind them to the variable, and raise the
+                // error when the aggregate function is evaluated
+                Util.debug(ex);
+                grp.ngv[g] = new ValueBuilder(qc).add(values);
+                grp.aggr[g] = null;
+              }
+            }
+          }
         }
 
         // we're finished, copy the array so the list can be garbage-collected
@@ -203,6 +249,51 @@ public final class GroupBy extends Clause {
     return true;
   }
 
+  /**
+   * Assigns aggregate functions to non-grouping variables that are exclusively referenced
+   * as arguments of {@code fn:count}, {@code fn:sum}, {@code fn:min} or {@code fn:max}.
+   * The values of these variables will be aggregated while the groups are built up.
+   * @param clauses subsequent clauses
+   * @param rtrn return expression
+   * @param cc compilation context
+   */
+  void aggregate(final List<Clause> clauses, final Expr rtrn, final CompileContext cc) {
+
+    final int pl = post.length;
+    for(int p = 0; p < pl; p++) {
+      final Var var = post[p];
+      final Function[] func = { null };
+      final int[] refs = { 0, 0 };
+      final ASTVisitor visitor = new ASTVisitor() {
+        @Override
+        public boolean used(final VarRef ref) {
+          if(ref.var.is(var)) refs[0]++;
+          return true;
+        }
+
+        @Override
+        public boolean funcCall(final StandardFunc call) {
+          if(call.exprs.length == 1 && call.exprs[0] instanceof VarRef &&
+              ((VarRef) call.exprs[0]).var.is(var)) {
+            for(final Function f : AGGREGATES) {
+              if(f.is(call) && (func[0] == null || func[0] == f)) {
+                func[0] = f;
+                refs[1]++;
+              }
+            }
+          }
+          return true;
+        }
+      };
+      for(final Clause clause : clauses) clause.accept(visitor);
+      rtrn.accept(visitor);
+
+      final Function f = func[0];
+      aggr[p] = f != null && refs[0] == refs[1] ?
+        f.def.get(cc.sc(), info, new VarRef(info, var)) : null;
+    }
+  }
+
   @Override
   public boolean has(final Flag... flags) {
     for(final GroupSpec spec : specs) {
@@ -263,8 +354,12 @@ public final class GroupBy extends Clause {
     final int pl = ps.length;
     for(int p = 0; p < pl; p++) ps[p] = cc.copy(post[p], vm);
 
+    // copy the aggregate function calls, which reference the copied variables
+    final Expr[] ags = new Expr[pl];
+    for(int p = 0; p < pl; p++) ags[p] = aggr[p] == null ? null : aggr[p].copy(cc, vm);
+
     // done
-    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, nonOcc, info);
+    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, ags, nonOcc, info);
   }
 
   @Override
@@ -286,6 +381,7 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < post.length; p++) {
       if(!used.get(post[p].id)) {
         preExpr = Array.remove(preExpr, p);
+        aggr = Array.remove(aggr, p);
         post = Array.remove(post, p--);
       }
     }
@@ -329,6 +425,9 @@ public final class GroupBy extends Clause {
   public void plan(final FElem plan) {
     final FElem elem = planElem();
     for(final GroupSpec spec : specs) spec.plan(elem);
+    for(final Expr ag : aggr) {
+      if(ag != null) ag.plan(elem);
+    }
     plan.add(elem);
   }
 
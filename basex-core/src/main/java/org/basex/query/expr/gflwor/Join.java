@@ -0,0 +1,280 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryText.*;
+
+import java.util.List;
+
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * FLWOR hash join clause, replacing a {@code for} clause and a {@code where} clause with an
+ * equality comparison. The bound expression and the keys of its items are independent of the
+ * preceding iterations: they are evaluated and indexed once, and each incoming tuple is joined
+ * by looking up the values of the probe expression.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class Join extends Clause {
+  /** Item variable. */
+  final Var var;
+  /** Bound expression. */
+  Expr expr;
+  /** Key expression (references the item variable). */
+  Expr key;
+  /** Probe expression (evaluated for each incoming tuple). */
+  Expr probe;
+
+  /**
+   * Constructor.
+   * @param var item variable
+   * @param expr bound expression
+   * @param key key expression
+   * @param probe probe expression
+   */
+  private Join(final Var var, final Expr expr, final Expr key, final Expr probe) {
+    super(var.info, SeqType.ITEM_O, var);
+    this.var = var;
+    this.expr = expr;
+    this.key = key;
+    this.probe = probe;
+  }
+
+  /**
+   * Tries to rewrite a {@code for} clause and a subsequent {@code where} clause to a join.
+   * @param fr for clause
+   * @param where where clause
+   * @param before clauses preceding the for clause
+   * @param cc compilation context
+   * @return join clause or {@code null}
+   * @throws QueryException query exception
+   */
+  static Join get(final For fr, final Where where, final List<Clause> before,
+      final CompileContext cc) throws QueryException {
+
+    // skip for clauses with position, score or empty bindings; skip non-equi-joins
+    final Var var = fr.var;
+    if(fr.vars().length != 1 || fr.empty || fr.has(Flag.NDT, Flag.CNS) ||
+        !(where.expr instanceof CmpG)) return null;
+    final CmpG cmp = (CmpG) where.expr;
+    if(!cmp.hashable() || cmp.has(Flag.NDT)) return null;
+
+    // one operand must reference the item variable, the other one must not
+    final Expr op1 = cmp.exprs[0], op2 = cmp.exprs[1];
+    final boolean uses1 = op1.uses(var), uses2 = op2.uses(var);
+    if(uses1 == uses2) return null;
+    final Expr key = uses1 ? op1 : op2, probe = uses1 ? op2 : op1;
+    if(key.has(Flag.CNS)) return null;
+
+    // rewrite is only beneficial if tuples are repeatedly joined with the bound expression
+    boolean loop = false;
+    for(final Clause clause : before) {
+      loop |= clause instanceof For || clause instanceof Window || clause instanceof Join;
+      // bound expression and keys must be independent of the iterated clauses
+      if(loop) {
+        for(final Var v : clause.vars()) {
+          if(fr.expr.uses(v) || key.uses(v)) return null;
+        }
+      }
+    }
+    if(!loop) return null;
+
+    // prefer index-based evaluation of database nodes
+    final Data data = fr.expr.data();
+    if(data != null && (data.meta.textindex || data.meta.attrindex || data.meta.tokenindex)) {
+      return null;
+    }
+    return new Join(var, fr.expr, key, probe).optimize(cc);
+  }
+
+  @Override
+  Eval eval(final Eval sub) {
+    return new Eval() {
+      /** Items of the bound expression. */
+      private Value value;
+      /** Hashed keys. */
+      private HashItemSet keys;
+      /** Positions of the items, indexed by the ids of the keys. */
+      private IntList[] positions;
+      /** Positions of the joined items. */
+      private int[] joined = new int[0];
+      /** Current index. */
+      private int j;
+
+      @Override
+      public boolean next(final QueryContext qc) throws QueryException {
+        while(true) {
+          if(j < joined.length) {
+            qc.set(var, value.itemAt(joined[j++]));
+            return true;
+          }
+          // no more tuples from above: we're done here
+          if(!sub.next(qc)) return false;
+
+          // index items on first call, join next tuple
+          if(keys == null) build(qc);
+          joined = probe(qc);
+          j = 0;
+        }
+      }
+
+      /**
+       * Evaluates the bound expression and indexes the keys of its items.
+       * @param qc query context
+       * @throws QueryException query exception
+       */
+      private void build(final QueryContext qc) throws QueryException {
+        value = expr.value(qc);
+        keys = new HashItemSet(true);
+        positions = new IntList[Array.CAPACITY];
+        final long size = value.size();
+        for(int p = 0; p < size; p++) {
+          qc.checkStop();
+          qc.set(var, value.itemAt(p));
+          final Iter iter = key.atomIter(qc, info);
+          for(Item item; (item = iter.next()) != null;) {
+            final int id = keys.put(item, info);
+            if(id == positions.length) positions = Array.copy(positions, new IntList[id << 1]);
+            if(positions[id] == null) positions[id] = new IntList(1);
+            // ignore duplicate keys of the same item
+            final IntList list = positions[id];
+            if(list.isEmpty() || list.peek() != p) list.add(p);
+          }
+        }
+      }
+
+      /**
+       * Returns the positions of all items whose keys match the values of the probe expression.
+       * @param qc query context
+       * @return positions in ascending order
+       * @throws QueryException query exception
+       */
+      private int[] probe(final QueryContext qc) throws QueryException {
+        final Iter iter = probe.atomIter(qc, info);
+        IntList result = null;
+        int lists = 0;
+        for(Item item; (item = qc.next(iter)) != null;) {
+          final int id = keys.id(item, info);
+          if(id == 0) continue;
+          if(result == null) result = new IntList(positions[id].size());
+          result.add(positions[id].toArray());
+          lists++;
+        }
+        if(result == null) return new int[0];
+        // merge positions of multiple keys, preserve order of bound expression
+        return lists == 1 ? result.finish() : result.sort().distinct().finish();
+      }
+    };
+  }
+
+  @Override
+  public boolean has(final Flag... flags) {
+    return expr.has(flags) || key.has(flags) || probe.has(flags);
+  }
+
+  @Override
+  public Join compile(final CompileContext cc) throws QueryException {
+    expr = expr.compile(cc);
+    key = key.compile(cc);
+    probe = probe.compile(cc);
+    return optimize(cc);
+  }
+
+  @Override
+  public Join optimize(final CompileContext cc) throws QueryException {
+    final SeqType st = expr.seqType();
+    exprType.assign(st.type);
+    var.refineType(seqType(), 1, cc);
+    var.data = expr.data();
+    return this;
+  }
+
+  @Override
+  public boolean inlineable(final Var v) {
+    return expr.inlineable(v) && key.inlineable(v) && probe.inlineable(v);
+  }
+
+  @Override
+  public VarUsage count(final Var v) {
+    return key.count(v) == VarUsage.NEVER ? VarUsage.sum(v, expr, probe) :
+      VarUsage.MORE_THAN_ONCE;
+  }
+
+  @Override
+  public Clause inline(final Var v, final Expr ex, final CompileContext cc) throws QueryException {
+    final Expr exp = expr.inline(v, ex, cc), ky = key.inline(v, ex, cc);
+    final Expr prb = probe.inline(v, ex, cc);
+    if(exp != null) expr = exp;
+    if(ky != null) key = ky;
+    if(prb != null) probe = prb;
+    return exp != null || ky != null || prb != null ? optimize(cc) : null;
+  }
+
+  @Override
+  public Join copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final Var v = cc.copy(var, vm);
+    return copyType(new Join(v, expr.copy(cc, vm), key.copy(cc, vm), probe.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return expr.accept(visitor) && probe.accept(visitor) && visitor.declared(var) &&
+        key.accept(visitor);
+  }
+
+  @Override
+  public void checkUp() throws QueryException {
+    checkNoUp(expr);
+    checkNoUp(key);
+    checkNoUp(probe);
+  }
+
+  @Override
+  void calcSize(final long[] minMax) {
+    // number of joined items cannot be anticipated
+    minMax[0] = 0;
+    minMax[1] = expr.seqType().zero() ? 0 : -1;
+  }
+
+  @Override
+  public int exprSize() {
+    return expr.exprSize() + key.exprSize() + probe.exprSize();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(this == obj) return true;
+    if(!(obj instanceof Join)) return false;
+    final Join j = (Join) obj;
+    return var.equals(j.var) && expr.equals(j.expr) && key.equals(j.key) &&
+        probe.equals(j.probe);
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    final FElem elem = planElem();
+    var.plan(elem);
+    expr.plan(elem);
+    key.plan(elem);
+    probe.plan(elem);
+    plan.add(elem);
+  }
+
+  @Override
+  public String toString() {
+    return FOR + ' ' + var + ' ' + IN + ' ' + expr + ' ' + WHERE + ' ' + key + " = " + probe;
+  }
+}
@@ -4,7 +4,7 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
 import java.util.*;
-import java.util.List;
+import java.util.concurrent.*;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
@@ -24,10 +24,16 @@ import org.basex.util.hash.*;
  * @author Leo Woerteler
  */
 public final class OrderBy extends Clause {
+  /** Minimum number of tuples for parallel sorting. */
+  private static final int PARALLEL = 1 << 16;
   /** References to the variables to be sorted. */
   private VarRef[] refs;
   /** Sort keys. */
   private final OrderKey[] keys;
+  /** Maximum number of tuples to be returned. */
+  private long limit = Long.MAX_VALUE;
+  /** Indicates if large inputs can be sorted in parallel. */
+  private final boolean parallel;
 
   /**
    * Constructor.
@@ -39,6 +45,10 @@ public final class OrderBy extends Clause {
     super(info, SeqType.ITEM_ZM);
     this.refs = refs;
     this.keys = keys;
+    // collations are not guaranteed to be thread-safe
+    boolean p = true;
+    for(final OrderKey key : keys) p &= key.coll == null;
+    parallel = p;
   }
 
   @Override
@@ -51,7 +61,7 @@ public final class OrderBy extends Clause {
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
         if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
+        if(pos == perm.length) return false;
         final int p = perm[pos++];
         final Value[] tuple = tpls[p];
         // free the space occupied by the tuple
@@ -63,65 +73,109 @@ public final class OrderBy extends Clause {
 
       /**
        * Caches and sorts all incoming tuples.
+       * If the number of results is limited, only the required tuples are kept.
        * @param qc query context
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
+        final int max = (int) Math.min(limit, Integer.MAX_VALUE >>> 2);
+        final ArrayList<Item[]> ks = new ArrayList<>();
+        final ArrayList<Value[]> vs = new ArrayList<>();
         while(sub.next(qc)) {
           final int kl = keys.length;
           final Item[] key = new Item[kl];
           for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info);
-          tuples.add(key);
+          ks.add(key);
 
           final int rl = refs.length;
           final Value[] vals = new Value[rl];
           for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
-          tuples.add(vals);
-        }
+          vs.add(vals);
 
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
-        }
-        // be nice to the garbage collector
-        tuples = null;
-        try {
-          Arrays.sort(perm, (x, y) -> {
-            try {
-              final Item[] a = ks[x], b = ks[y];
-              final int kl = keys.length;
-              for(int k = 0; k < kl; k++) {
-                final OrderKey key = keys[k];
-                Item m = a[k], n = b[k];
-                if(m == Dbl.NAN || m == Flt.NAN) m = null;
-                if(n == Dbl.NAN || n == Flt.NAN) n = null;
-                if(m != null && n != null && !m.comparable(n))
-                  throw typeError(n, m.type, key.info);
-
-                final int c = m == null
-                    ? n == null ? 0                 : key.least ? -1 : 1
-                    : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
-                if(c != 0) return key.desc ? -c : c;
-              }
-              return 0;
-            } catch(final QueryException ex) {
-              throw new QueryRTException(ex);
+          // top-k: discard tuples that will not be returned
+          if(ks.size() == max << 1) {
+            final Item[][] kk = ks.toArray(new Item[0][]);
+            final Integer[] order = order(kk, qc);
+            final Value[][] vv = vs.toArray(new Value[0][]);
+            ks.clear();
+            vs.clear();
+            for(int o = 0; o < max; o++) {
+              ks.add(kk[order[o]]);
+              vs.add(vv[order[o]]);
             }
-          });
-        } catch(final QueryRTException ex) {
-          throw ex.getCause();
+          }
         }
+
+        tpls = vs.toArray(new Value[0][]);
+        final Integer[] order = order(ks.toArray(new Item[0][]), qc);
+        perm = order.length > max ? Arrays.copyOf(order, max) : order;
       }
     };
   }
 
+  /**
+   * Returns the sort order of the specified keys. Large inputs are sorted in parallel.
+   * The sort is stable: tuples with equal keys remain in their original order.
+   * @param ks keys
+   * @param qc query context
+   * @return positions of the tuples in sorted order
+   * @throws QueryException query exception
+   */
+  private Integer[] order(final Item[][] ks, final QueryContext qc) throws QueryException {
+    final int len = ks.length;
+    final Integer[] order = new Integer[len];
+    for(int i = 0; i < len; i++) order[i] = i;
+
+    final Comparator<Integer> cmp = (x, y) -> {
+      try {
+        return compare(ks[x], ks[y]);
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    };
+    try {
+      if(len < PARALLEL || !parallel) Arrays.sort(order, cmp);
+      else qc.context.jobs.workers().invoke(
+          ForkJoinTask.adapt(() -> Arrays.parallelSort(order, cmp)));
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    return order;
+  }
+
+  /**
+   * Compares two sort keys.
+   * @param a first key
+   * @param b second key
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Item[] a, final Item[] b) throws QueryException {
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final OrderKey key = keys[k];
+      Item m = a[k], n = b[k];
+      if(m == Dbl.NAN || m == Flt.NAN) m = null;
+      if(n == Dbl.NAN || n == Flt.NAN) n = null;
+      if(m != null && n != null && !m.comparable(n))
+        throw typeError(n, m.type, key.info);
+
+      final int c = m == null
+          ? n == null ? 0                 : key.least ? -1 : 1
+          : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
+      if(c != 0) return key.desc ? -c : c;
+    }
+    return 0;
+  }
+
+  /**
+   * Limits the number of tuples that will be returned.
+   * @param max maximum number of tuples
+   */
+  void limit(final long max) {
+    limit = Math.min(limit, Math.max(max, 1));
+  }
+
   @Override
   public boolean has(final Flag... flags) {
     for(final OrderKey key : keys) {
@@ -165,7 +219,9 @@ public final class OrderBy extends Clause {
 
   @Override
   public OrderBy copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info));
+    final OrderBy ob = new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info);
+    ob.limit = limit;
+    return copyType(ob);
   }
 
   @Override
@@ -215,12 +271,12 @@ public final class OrderBy extends Clause {
     if(this == obj) return true;
     if(!(obj instanceof OrderBy)) return false;
     final OrderBy o = (OrderBy) obj;
-    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys);
+    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys) && limit == o.limit;
   }
 
   @Override
   public void plan(final FElem plan) {
-    final FElem elem = planElem();
+    final FElem elem = planElem(MAX, limit == Long.MAX_VALUE ? null : limit);
     for(final OrderKey key : keys) key.plan(elem);
     plan.add(elem);
   }
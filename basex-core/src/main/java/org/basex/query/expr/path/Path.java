@@ -199,10 +199,35 @@ public abstract class Path extends ParseExpr {
     if(expr == this) expr = children(cc, rt);
     if(expr != this) return expr.optimize(cc);
 
+    // evaluate most selective predicates first
+    reorder(cc, rt);
     // choose best path implementation and set type information
     return copyType(get(info, root, steps));
   }
 
+  /**
+   * Reorders the predicates of the steps by their estimated selectivity.
+   * @param cc compilation context
+   * @param rt root value (can be {@code null})
+   */
+  private void reorder(final CompileContext cc, final Value rt) {
+    if(rt == null || rt.type != NodeType.DOC || cc.nestedFocus() && cc.qc.focus.value == null)
+      return;
+    final Data data = rt.data();
+    if(data == null || !data.meta.uptodate) return;
+
+    // predicates do not change the path nodes of subsequent steps
+    ArrayList<PathNode> nodes = data.paths.root();
+    final int sl = steps.length;
+    for(int s = 0; s < sl; s++) {
+      final Step step = axisStep(s);
+      if(step == null) return;
+      nodes = step.nodes(nodes, data, true);
+      if(nodes == null) return;
+      step.reorder(nodes, data, cc);
+    }
+  }
+
   @Override
   public Expr optimizeEbv(final CompileContext cc) throws QueryException {
     final Expr last = steps[steps.length - 1];
@@ -151,9 +151,21 @@ public abstract class Step extends Preds {
    * @param dt data reference
    * @return resulting path nodes or {@code null} if nodes cannot be evaluated
    */
-  final ArrayList<PathNode> nodes(final ArrayList<PathNode> nodes, final Data dt) {
+  public final ArrayList<PathNode> nodes(final ArrayList<PathNode> nodes, final Data dt) {
+    return nodes(nodes, dt, false);
+  }
+
+  /**
+   * Returns the path nodes that are the result of this step.
+   * @param nodes initial path nodes
+   * @param dt data reference
+   * @param preds ignore predicates
+   * @return resulting path nodes or {@code null} if nodes cannot be evaluated
+   */
+  final ArrayList<PathNode> nodes(final ArrayList<PathNode> nodes, final Data dt,
+      final boolean preds) {
     // skip steps with predicates or different namespaces
-    if(exprs.length != 0 || dt.nspaces.globalUri() == null) return null;
+    if(!preds && exprs.length != 0 || dt.nspaces.globalUri() == null) return null;
 
     // check restrictions on node type
     int kind = -1, name = 0;
@@ -0,0 +1,132 @@
+package org.basex.query.func;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Bounded cache for the results of a memoized function. Results are only cached for calls
+ * with atomic arguments. Arguments must have the same type and the same lexical value:
+ * values that are equal, but not identical (such as dates in different timezones), may yield
+ * different results. If the maximum size is exceeded, the least recently used entries
+ * are discarded.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+final class FuncCache {
+  /** Default maximum number of entries. */
+  static final int MAX = 10000;
+
+  /** Cached results. */
+  private final LinkedHashMap<Key, Value> results;
+
+  /**
+   * Constructor.
+   * @param max maximum number of entries
+   */
+  FuncCache(final long max) {
+    results = new LinkedHashMap<Key, Value>(Array.CAPACITY, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, Value> eldest) {
+        return size() > max;
+      }
+    };
+  }
+
+  /**
+   * Returns a cache key for the specified arguments.
+   * @param args arguments
+   * @param ii input info
+   * @return key, or {@code null} if the arguments contain non-atomic items
+   * @throws QueryException query exception
+   */
+  static Key key(final Value[] args, final InputInfo ii) throws QueryException {
+    int hash = 1;
+    for(final Value arg : args) {
+      for(final Item item : arg) {
+        if(!(item.type instanceof AtomType) || item.type == AtomType.JAVA) return null;
+        hash = 31 * hash + Token.hash(item.string(ii));
+      }
+      hash = 31 * hash + (int) arg.size();
+    }
+    return new Key(args, hash, ii);
+  }
+
+  /**
+   * Returns a cached result.
+   * @param key key
+   * @return result or {@code null}
+   */
+  synchronized Value get(final Key key) {
+    return results.get(key);
+  }
+
+  /**
+   * Caches a result.
+   * @param key key
+   * @param value result
+   */
+  synchronized void put(final Key key, final Value value) {
+    results.put(key, value);
+  }
+
+  /** Cache key, consisting of the atomic arguments of a function call. */
+  static final class Key {
+    /** Arguments. */
+    private final Value[] args;
+    /** Hash value. */
+    private final int hash;
+    /** Input info. */
+    private final InputInfo info;
+
+    /**
+     * Constructor.
+     * @param args arguments
+     * @param hash hash value
+     * @param info input info
+     */
+    private Key(final Value[] args, final int hash, final InputInfo info) {
+      this.args = args;
+      this.hash = hash;
+      this.info = info;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if(this == obj) return true;
+      if(!(obj instanceof Key)) return false;
+      final Key key = (Key) obj;
+      final int al = args.length;
+      if(hash != key.hash || al != key.args.length) return false;
+      for(int a = 0; a < al; a++) {
+        final Value value1 = args[a], value2 = key.args[a];
+        final long size = value1.size();
+        if(size != value2.size()) return false;
+        for(int i = 0; i < size; i++) {
+          // items must have the same type and lexical value: results may depend on both
+          final Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
+          try {
+            if(item1.type != item2.type || !Token.eq(item1.string(info), item2.string(info)) ||
+               item1 instanceof QNm && !Token.eq(((QNm) item1).uri(), ((QNm) item2).uri())) {
+              return false;
+            }
+          } catch(final QueryException ex) {
+            Util.debug(ex);
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+  }
+}
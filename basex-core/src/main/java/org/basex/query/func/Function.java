@@ -858,6 +858,9 @@ public enum Function {
   /** XQuery function. */
   _FETCH_XML_BINARY(FetchXmlBinary.class, "xml-binary(binary[,options])",
       arg(B64_O, MAP_ZO), DOC_O, flag(NDT), FETCH_URI),
+  /** XQuery function. */
+  _FETCH_XML_STREAM(FetchXmlStream.class, "xml-stream(uri,path[,options])",
+      arg(STR_O, STR_O, MAP_ZO), ELM_ZM, flag(NDT), FETCH_URI),
 
   // File Module
 
@@ -1324,6 +1327,16 @@ public enum Function {
   /** XQuery function. */
   _UTIL_OR(UtilOr.class, "or(items,default)", arg(ITEM_ZM, ITEM_ZM), ITEM_ZM, UTIL_URI),
   /** XQuery function. */
+  _UTIL_PARALLEL_FILTER(UtilParallelFilter.class, "parallel-filter(items,function)",
+      arg(ITEM_ZM, FuncType.get(BLN_O, ITEM_O).seqType()), ITEM_ZM, flag(HOF), UTIL_URI),
+  /** XQuery function. */
+  _UTIL_PARALLEL_FOR_EACH(UtilParallelForEach.class, "parallel-for-each(items,function)",
+      arg(ITEM_ZM, FuncType.get(ITEM_ZM, ITEM_O).seqType()), ITEM_ZM, flag(HOF), UTIL_URI),
+  /** XQuery function. */
+  _UTIL_PARALLEL_SORT(UtilParallelSort.class, "parallel-sort(items[,collation[,function]])",
+      arg(ITEM_ZM, STR_ZO, FuncType.get(AAT_ZM, ITEM_O).seqType()), ITEM_ZM, flag(HOF),
+      UTIL_URI),
+  /** XQuery function. */
   _UTIL_RANGE(UtilRange.class, "range(items,first,last)",
       arg(ITEM_ZM, DBL_O, DBL_O), ITEM_ZM, UTIL_URI),
   /** XQuery function. */
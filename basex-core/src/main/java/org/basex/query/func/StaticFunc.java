@@ -39,6 +39,8 @@ public final class StaticFunc extends StaticDecl implements XQFunction {
   private final EnumMap<Flag, Boolean> map = new EnumMap<>(Flag.class);
   /** Flag that is turned on during compilation and prevents premature inlining. */
   private boolean compiling;
+  /** Cached results of a memoized function (can be {@code null}). */
+  private FuncCache cache;
 
   /**
    * Function constructor.
@@ -88,8 +90,15 @@ public final class StaticFunc extends StaticDecl implements XQFunction {
       cc.removeFocus();
     }
 
-    // convert all function calls in tail position to proper tail calls
-    expr.markTailCalls(cc);
+    // memoize results of deterministic functions, or convert all function calls in tail
+    // position to proper tail calls (results of tail calls cannot be cached)
+    final Ann ann = anns.get(Annotation._BASEX_MEMOIZE);
+    if(ann != null && !updating() && !has(Flag.NDT, Flag.CNS)) {
+      final Item[] args = ann.args();
+      cache = new FuncCache(args.length > 0 ? ((ANum) args[0]).itr() : FuncCache.MAX);
+    } else {
+      expr.markTailCalls(cc);
+    }
 
     compiling = false;
   }
@@ -154,6 +163,8 @@ public final class StaticFunc extends StaticDecl implements XQFunction {
   public Item invItem(final QueryContext qc, final InputInfo ii, final Value... arg)
       throws QueryException {
 
+    if(cache != null) return memoize(qc, arg).item(qc, info);
+
     // reset context and evaluate function
     final QueryFocus qf = qc.focus;
     final Value cv = qf.value;
@@ -171,6 +182,36 @@ public final class StaticFunc extends StaticDecl implements XQFunction {
   public Value invValue(final QueryContext qc, final InputInfo ii, final Value... arg)
       throws QueryException {
 
+    if(cache != null) return memoize(qc, arg);
+    return value(qc, arg);
+  }
+
+  /**
+   * Returns a cached result or evaluates the function and caches its result.
+   * @param qc query context
+   * @param arg arguments
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  private Value memoize(final QueryContext qc, final Value[] arg) throws QueryException {
+    final FuncCache.Key key = FuncCache.key(arg, info);
+    if(key == null) return value(qc, arg);
+    Value value = cache.get(key);
+    if(value == null) {
+      value = value(qc, arg);
+      cache.put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Evaluates the function.
+   * @param qc query context
+   * @param arg arguments
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  private Value value(final QueryContext qc, final Value[] arg) throws QueryException {
     // reset context and evaluate function
     final QueryFocus qf = qc.focus;
     final Value cv = qf.value;
@@ -287,7 +328,8 @@ public final class StaticFunc extends StaticDecl implements XQFunction {
 
   @Override
   public Expr inline(final Expr[] exprs, final CompileContext cc) throws QueryException {
-    if(!inline(cc, anns, expr) || has(Flag.CTX) || compiling || selfRecursive()) return null;
+    if(!inline(cc, anns, expr) || has(Flag.CTX) || compiling || selfRecursive() ||
+        anns.contains(Annotation._BASEX_MEMOIZE)) return null;
     cc.info(OPTINLINE_X, (Supplier<?>) this::id);
 
     // create let bindings for all variables
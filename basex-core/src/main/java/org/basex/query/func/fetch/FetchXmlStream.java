@@ -0,0 +1,94 @@
+package org.basex.query.func.fetch;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.build.*;
+import org.basex.build.xml.*;
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.up.primitives.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.util.*;
+import org.basex.util.options.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class FetchXmlStream extends StandardFunc {
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    final byte[] in = toToken(exprs[0], qc);
+    if(!Uri.uri(in).isValid()) throw INVDOC_X.get(info, in);
+    final byte[][] path = path(toToken(exprs[1], qc));
+    final Options opts = toOptions(2, new Options(), qc);
+
+    final MainOptions mo = MainOptions.get();
+    new DBOptions(opts, DBOptions.PARSING, info).assignTo(mo);
+    final XMLParser parser;
+    try {
+      parser = new XMLParser(IO.get(string(in)), mo);
+    } catch(final IOException ex) {
+      throw FETCH_OPEN_X.get(info, ex);
+    }
+    final Closeable input = parser::close;
+    qc.resources.add(input);
+
+    // each element is parsed into a separate main-memory instance
+    return new Iter() {
+      @Override
+      public DBNode next() throws QueryException {
+        try {
+          final MemBuilder builder = new MemBuilder("", parser);
+          builder.init();
+          if(parser.stream(path, builder)) {
+            final Data data = builder.data();
+            data.meta.lastid = data.meta.size - 1;
+            return new DBNode(data);
+          }
+          qc.resources.remove(input);
+          return null;
+        } catch(final IOException ex) {
+          throw FETCH_OPEN_X.get(info, ex);
+        }
+      }
+    };
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    return iter(qc).value(qc);
+  }
+
+  /**
+   * Parses the path to the streamed elements. Only absolute paths with child steps are supported.
+   * Names are compared without prefixes, and asterisks match all names.
+   * @param path path
+   * @return local names of the elements and its ancestors ({@code null}: match all names)
+   * @throws QueryException query exception
+   */
+  private byte[][] path(final byte[] path) throws QueryException {
+    if(!startsWith(path, '/') || endsWith(path, '/') || contains(path, token("//")))
+      throw FETCH_PATH_X.get(info, path);
+
+    final byte[][] names = split(path, '/');
+    final int nl = names.length;
+    for(int n = 0; n < nl; n++) {
+      final byte[] name = names[n];
+      if(eq(name, token("*"))) names[n] = null;
+      else if(!XMLToken.isNCName(name)) throw FETCH_PATH_X.get(info, path);
+    }
+    return names;
+  }
+}
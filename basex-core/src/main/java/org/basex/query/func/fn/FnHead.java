@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.value.*;
@@ -30,6 +31,8 @@ public final class FnHead extends StandardFunc {
 
     // check for large values and fn:reverse function
     if(expr instanceof Value) return ((Value) expr).itemAt(0);
+    // only request the first tuple of ordered FLWOR results
+    if(expr instanceof GFLWOR) ((GFLWOR) expr).limit(1, cc);
 
     // rewrite nested function calls
     final long size = expr.size();
@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -180,6 +181,8 @@ public class FnSubsequence extends StandardFunc {
       if(sr == ALL) return expr;
       // pre-evaluate value
       if(expr instanceof Value) return value(cc.qc);
+      // only request the required tuples of ordered FLWOR results
+      if(expr instanceof GFLWOR && sr.end != Long.MAX_VALUE) ((GFLWOR) expr).limit(sr.end, cc);
 
       // check if result size is statically known
       final long size = sr.adjust(expr.size());
@@ -2,6 +2,7 @@ package org.basex.query.func.util;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -66,6 +67,8 @@ public class UtilItem extends StandardFunc {
           return cc.function(Function._UTIL_ITEM, info, args(expr)[0], Int.get(size - p));
       }
       if(p == 0) return cc.function(Function.HEAD, info, expr);
+      // only request the required tuples of ordered FLWOR results
+      if(expr instanceof GFLWOR) ((GFLWOR) expr).limit(p + 1, cc);
 
       // rewrite nested function calls
       if(Function.TAIL.is(expr))
@@ -0,0 +1,37 @@
+package org.basex.query.func.util;
+
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+
+/**
+ * Parallel invocation of functions.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+abstract class UtilParallel extends StandardFunc {
+  /**
+   * Invokes a function for all items of the input. The input is partitioned into ranges, which
+   * are evaluated by the worker pool of the database context, each with its own query context.
+   * @param input input items
+   * @param func function to be invoked
+   * @param qc query context
+   * @return results, in the order of the input items
+   * @throws QueryException query exception
+   */
+  final Value[] invoke(final Value input, final FItem func, final QueryContext qc)
+      throws QueryException {
+
+    final Value[] results = new Value[(int) input.size()];
+    qc.parallel(results.length, (start, end, tqc) -> {
+      for(long i = start; i < end; i++) {
+        tqc.checkStop();
+        results[(int) i] = func.invokeValue(tqc, info, input.itemAt(i));
+      }
+      return null;
+    });
+    return results;
+  }
+}
@@ -0,0 +1,47 @@
+package org.basex.query.func.util;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class UtilParallelFilter extends UtilParallel {
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Value value = exprs[0].value(qc);
+    final FItem func = checkArity(exprs[1], 1, qc);
+
+    final Value[] results = invoke(value, func, qc);
+    final ValueBuilder vb = new ValueBuilder(qc);
+    final int rl = results.length;
+    for(int r = 0; r < rl; r++) {
+      if(toBoolean(results[r].item(qc, info))) vb.add(value.itemAt(r));
+    }
+    return vb.value();
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  protected Expr opt(final CompileContext cc) throws QueryException {
+    final Expr expr = exprs[0];
+    final SeqType st = expr.seqType();
+    if(st.zero()) return expr;
+
+    exprs[1] = coerceFunc(exprs[1], cc, SeqType.BLN_O, st.with(Occ.ONE));
+    exprType.assign(st.type, st.occ.union(Occ.ZERO));
+    return this;
+  }
+}
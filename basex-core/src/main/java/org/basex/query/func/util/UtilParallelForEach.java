@@ -0,0 +1,51 @@
+package org.basex.query.func.util;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class UtilParallelForEach extends UtilParallel {
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Value value = exprs[0].value(qc);
+    final FItem func = checkArity(exprs[1], 1, qc);
+
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(final Value result : invoke(value, func, qc)) vb.add(result);
+    return vb.value();
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  protected Expr opt(final CompileContext cc) throws QueryException {
+    final Expr expr1 = exprs[0];
+    final SeqType st1 = expr1.seqType();
+    if(st1.zero()) return expr1;
+
+    exprs[1] = coerceFunc(exprs[1], cc, SeqType.ITEM_ZM, st1.with(Occ.ONE));
+
+    // assign type after coercion (expression might have changed)
+    final FuncType ft = exprs[1].funcType();
+    if(ft != null) {
+      final SeqType declType = ft.declType;
+      final boolean mayBeEmpty = st1.mayBeEmpty() || declType.mayBeEmpty();
+      final long size = declType.zero() ? 0 : declType.one() ? expr1.size() : -1;
+      exprType.assign(declType.type, mayBeEmpty ? Occ.ZERO_MORE : Occ.ONE_MORE, size);
+    }
+    return this;
+  }
+}
@@ -0,0 +1,67 @@
+package org.basex.query.func.util;
+
+import static org.basex.query.QueryError.*;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.func.fn.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.collation.*;
+import org.basex.query.util.list.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class UtilParallelSort extends UtilParallel {
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    return iter(qc).value(qc);
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    final Value value = exprs[0].value(qc);
+    Collation coll = sc.collation;
+    if(exprs.length > 1) {
+      final byte[] token = toTokenOrNull(exprs[1], qc);
+      if(token != null) coll = Collation.get(token, qc, sc, info, WHICHCOLL_X);
+    }
+    final FItem key = exprs.length > 2 ? checkArity(exprs[2], 1, qc) : null;
+
+    // compute sort keys in parallel
+    final long size = value.size();
+    final ValueList values = new ValueList(size);
+    if(key != null) {
+      for(final Value result : invoke(value, key, qc)) values.add(result.atomValue(qc, info));
+    } else {
+      for(final Item item : value) values.add(item.atomValue(qc, info));
+    }
+
+    final Integer[] order = FnSort.sort(values, this, coll, qc);
+    return new BasicIter<Item>(size) {
+      @Override
+      public Item get(final long i) {
+        return value.itemAt(order[(int) i]);
+      }
+    };
+  }
+
+  @Override
+  protected Expr opt(final CompileContext cc) throws QueryException {
+    final Expr expr1 = exprs[0];
+    final SeqType st1 = expr1.seqType();
+    if(st1.zero()) return expr1;
+
+    if(exprs.length == 3) {
+      exprs[2] = coerceFunc(exprs[2], cc, SeqType.AAT_ZM, st1.with(Occ.ONE));
+    }
+    return adoptType(expr1);
+  }
+}
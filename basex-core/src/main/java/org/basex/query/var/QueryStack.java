@@ -36,6 +36,19 @@ public final class QueryStack {
     return s;
   }
 
+  /**
+   * Enters a new stack frame and copies the variable bindings of the current stack frame
+   * of the specified stack.
+   * @param qs query stack
+   * @return stack pointer of the old frame
+   */
+  public int enterFrame(final QueryStack qs) {
+    final int s = qs.start, size = qs.end - s, frame = enterFrame(size);
+    Array.copy(qs.stack, s, size, stack, start);
+    Array.copy(qs.vars, s, size, vars, start);
+    return frame;
+  }
+
   /**
    * Prepares the current stack frame to be reused.
    * @param size new frame size
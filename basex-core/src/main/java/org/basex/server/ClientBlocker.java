@@ -17,11 +17,20 @@ public final class ClientBlocker {
    * Registers the client and delays the process.
    * @param client client address
    */
-  public synchronized void delay(final byte[] client) {
+  public void delay(final byte[] client) {
+    Performance.sleep(register(client));
+  }
+
+  /**
+   * Registers the client and returns the time by which the process is to be delayed.
+   * @param client client address
+   * @return delay in milliseconds
+   */
+  public synchronized long register(final byte[] client) {
     int delay = blocked.get(client);
     delay = delay == -1 ? 1 : Math.min(delay, 1024) << 1;
     blocked.put(client, delay);
-    while(--delay > 0) Performance.sleep(100);
+    return (delay - 1) * 100L;
   }
 
   /**
@@ -0,0 +1,158 @@
+package org.basex.server;
+
+import java.io.*;
+import java.net.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.server.Log.*;
+import org.basex.util.*;
+
+/**
+ * Dispatches the requests of client sessions to a bounded pool of worker threads.
+ * Idle connections are registered with a selector and do not occupy a thread. If a client
+ * sends data, its channel is deregistered and served by a worker until no more input is
+ * available. Afterwards, the channel is registered again. Clients that stall while sending
+ * a request are closed after the {@link StaticOptions#REQUESTTIMEOUT}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientDispatcher implements Runnable {
+  /** Clients to be registered with the selector. */
+  private final Queue<ClientListener> pending = new ConcurrentLinkedQueue<>();
+  /** Selector for idle connections. */
+  private final Selector selector;
+  /** Worker threads. */
+  private final ExecutorService workers;
+  /** Timer for delayed rejections of failed logins. */
+  private final ScheduledExecutorService timer;
+  /** Database context. */
+  private final Context context;
+
+  /**
+   * Constructor.
+   * @param threads maximum number of worker threads
+   * @param context database context
+   * @throws IOException I/O exception
+   */
+  public ClientDispatcher(final int threads, final Context context) throws IOException {
+    this.context = context;
+    selector = Selector.open();
+    final ThreadFactory factory = r -> {
+      final Thread thread = new Thread(r);
+      thread.setDaemon(true);
+      return thread;
+    };
+    workers = Executors.newFixedThreadPool(threads, factory);
+    timer = Executors.newSingleThreadScheduledExecutor(factory);
+    final Thread thread = new Thread(this);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Adds a new client. The authentication challenge is sent, and the client is registered.
+   * @param client client
+   */
+  public void add(final ClientListener client) {
+    client.dispatched = true;
+    workers.execute(() -> {
+      if(client.challenge()) register(client);
+      else client.close();
+    });
+  }
+
+  @Override
+  public void run() {
+    while(selector.isOpen()) {
+      try {
+        selector.select();
+        for(ClientListener client; (client = pending.poll()) != null;) {
+          try {
+            client.socket().getChannel().register(selector, SelectionKey.OP_READ, client);
+          } catch(final ClosedChannelException ex) {
+            // connection was closed in the meantime
+            Util.debug(ex);
+            client.close();
+          }
+        }
+
+        // deregister channels with available input (required for switching to blocking mode)
+        final ArrayList<ClientListener> ready = new ArrayList<>();
+        final Set<SelectionKey> keys = selector.selectedKeys();
+        while(!keys.isEmpty()) {
+          for(final SelectionKey key : keys) {
+            key.cancel();
+            ready.add((ClientListener) key.attachment());
+          }
+          keys.clear();
+          selector.selectNow();
+        }
+        for(final ClientListener client : ready) workers.execute(() -> serve(client));
+      } catch(final ClosedSelectorException ex) {
+        Util.debug(ex);
+        break;
+      } catch(final IOException ex) {
+        Util.errln(ex);
+        context.log.writeServer(LogType.ERROR, Util.message(ex));
+      }
+    }
+  }
+
+  /**
+   * Closes the selector and stops the worker threads.
+   */
+  public void close() {
+    workers.shutdownNow();
+    timer.shutdownNow();
+    try {
+      selector.close();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Serves a client with available input.
+   * @param client client
+   */
+  private void serve(final ClientListener client) {
+    final Socket socket = client.socket();
+    try {
+      socket.getChannel().configureBlocking(true);
+      // workers must not be blocked by incomplete requests
+      socket.setSoTimeout(context.soptions.get(StaticOptions.REQUESTTIMEOUT) * 1000);
+      if(client.serve()) {
+        register(client);
+        return;
+      }
+      // failed login: reject client after a delay, without occupying a worker
+      final long delay = client.rejection();
+      if(delay >= 0) {
+        timer.schedule(() -> workers.execute(client::reject), delay, TimeUnit.MILLISECONDS);
+        return;
+      }
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+    client.close();
+  }
+
+  /**
+   * Registers a client with the selector.
+   * @param client client
+   */
+  private void register(final ClientListener client) {
+    try {
+      client.socket().getChannel().configureBlocking(false);
+      pending.add(client);
+      selector.wakeup();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      client.close();
+    }
+  }
+}
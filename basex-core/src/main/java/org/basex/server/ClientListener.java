@@ -41,6 +41,8 @@ public final class ClientListener extends Thread implements ClientInfo {
   private final BaseXServer server;
   /** Socket reference. */
   private final Socket socket;
+  /** Authentication nonce. */
+  private String nonce;
 
   /** Input stream. */
   private BufferInput in;
@@ -54,6 +56,12 @@ public final class ClientListener extends Thread implements ClientInfo {
   private volatile boolean authenticated;
   /** Indicates if the server has been closed. */
   private boolean closed;
+  /** Delay (in milliseconds) before a failed login is rejected ({@code -1}: no rejection). */
+  private long rejection = -1;
+  /** Indicates if the session is served by the {@link ClientDispatcher}. */
+  boolean dispatched;
+  /** Indicates if a suspended cursor has been stopped after the idle timeout. */
+  private boolean expired;
 
   /**
    * Constructor.
@@ -72,96 +80,130 @@ public final class ClientListener extends Thread implements ClientInfo {
   @Override
   public void run() {
     if(!authenticate()) return;
+    while(process());
+  }
 
+  /**
+   * Processes the input that is available for this client: evaluates the login data or
+   * processes requests until no more input is available. Called by the {@link ClientDispatcher}.
+   * @return {@code true} if the session is still open
+   */
+  boolean serve() {
+    if(!authenticated) return login(false);
     try {
-      while(authenticated) {
-        command = null;
-        String cmd;
-        final ServerCmd sc;
-        try {
-          final int b = in.read();
-          if(b == -1) {
-            // end of stream: exit session
-            close();
-            break;
-          }
+      do {
+        if(!process()) return false;
+      } while(in.available() > 0);
+      return true;
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      close();
+      return false;
+    }
+  }
 
-          last = System.currentTimeMillis();
-          perf.ns();
-          sc = ServerCmd.get(b);
-          cmd = null;
-          if(sc == ServerCmd.CREATE) {
-            create();
-          } else if(sc == ServerCmd.ADD) {
-            add();
-          } else if(sc == ServerCmd.REPLACE) {
-            replace();
-          } else if(sc == ServerCmd.STORE) {
-            store();
-          } else if(sc != ServerCmd.COMMAND) {
-            query(sc);
-          } else {
-            // database command
-            cmd = new ByteList().add(b).add(in.readBytes()).toString();
-          }
-        } catch(final IOException ex) {
-          // this exception may be thrown if a session is stopped
-          Util.debug(ex);
-          close();
-          break;
+  /**
+   * Processes a single client request.
+   * @return {@code true} if the session is still open
+   */
+  private boolean process() {
+    try {
+      command = null;
+      String cmd;
+      final ServerCmd sc;
+      try {
+        if(expired) {
+          expired();
+          return true;
         }
-        if(sc != ServerCmd.COMMAND) continue;
-
-        // parse input and create command instance
-        try {
-          command = CommandParser.get(cmd, context).parseSingle();
-          command.jc().tracer = QueryTracer.EVALINFO;
-          log(LogType.REQUEST, command.toString(true));
-        } catch(final QueryException ex) {
-          // log invalid command
-          final String msg = ex.getMessage();
-          log(LogType.REQUEST, cmd);
-          log(LogType.ERROR, msg);
-          // send 0 to mark end of potential result
-          out.write(0);
-          // send {INFO}0
-          out.print(msg);
-          out.write(0);
-          // send 1 to mark error
-          send(false);
-          continue;
+        final int b = in.read();
+        if(b == -1) {
+          // end of stream: exit session
+          close();
+          return false;
         }
 
-        // execute command and send {RESULT}
-        boolean ok = true;
-        String info;
-        try {
-          // run command
-          command.execute(context, new ServerOutput(out));
-          info = command.info();
-        } catch(final BaseXException ex) {
-          Util.debug(ex);
-          ok = false;
-          info = ex.getMessage();
+        last = System.currentTimeMillis();
+        perf.ns();
+        sc = ServerCmd.get(b);
+        cmd = null;
+        if(sc == ServerCmd.CREATE) {
+          create();
+        } else if(sc == ServerCmd.ADD) {
+          add();
+        } else if(sc == ServerCmd.REPLACE) {
+          replace();
+        } else if(sc == ServerCmd.STORE) {
+          store();
+        } else if(sc == ServerCmd.BATCH) {
+          batch();
+        } else if(sc != ServerCmd.COMMAND) {
+          query(sc);
+        } else {
+          // database command
+          cmd = new ByteList().add(b).add(in.readBytes()).toString();
         }
-
-        // send 0 to mark end of result
+      } catch(final IOException ex) {
+        // this exception may be thrown if a session is stopped
+        Util.debug(ex);
+        close();
+        return false;
+      }
+      if(sc != ServerCmd.COMMAND) return true;
+
+      // parse input and create command instance
+      try {
+        command = CommandParser.get(cmd, context).parseSingle();
+        command.jc().tracer = QueryTracer.EVALINFO;
+        log(LogType.REQUEST, command.toString(true));
+      } catch(final QueryException ex) {
+        // log invalid command
+        final String msg = ex.getMessage();
+        log(LogType.REQUEST, cmd);
+        log(LogType.ERROR, msg);
+        // send 0 to mark end of potential result
         out.write(0);
-        // send info
-        info(info, ok);
+        // send {INFO}0
+        out.print(msg);
+        out.write(0);
+        // send 1 to mark error
+        send(false);
+        return true;
+      }
 
-        // stop console
-        if(command instanceof Exit) {
-          command = null;
-          close();
-        }
+      // execute command and send {RESULT}
+      boolean ok = true;
+      String info;
+      try {
+        // run command
+        command.execute(context, new ServerOutput(out));
+        info = command.info();
+      } catch(final BaseXException ex) {
+        Util.debug(ex);
+        ok = false;
+        info = ex.getMessage();
+      }
+
+      // send 0 to mark end of result
+      out.write(0);
+      // send info
+      info(info, ok);
+
+      // stop console
+      if(command instanceof Exit) {
+        command = null;
+        close();
+        return false;
       }
+      return true;
     } catch(final IOException ex) {
       log(LogType.ERROR, Util.message(ex));
       command = null;
       close();
+      return false;
+    } finally {
+      command = null;
     }
-    command = null;
   }
 
   /**
@@ -169,18 +211,41 @@ public final class ClientListener extends Thread implements ClientInfo {
    * @return success flag
    */
   private boolean authenticate() {
-    boolean auth = false;
-    try {
-      final String nonce = Long.toString(System.nanoTime());
-      final byte[] address = socket.getInetAddress().getAddress();
+    return challenge() && login(true);
+  }
 
+  /**
+   * Sends the authentication challenge to the client.
+   * @return success flag
+   */
+  boolean challenge() {
+    try {
+      nonce = Long.toString(System.nanoTime());
       // send {REALM:TIMESTAMP}0
       out = PrintOutput.get(socket.getOutputStream());
       out.print(Prop.NAME + ':' + nonce);
       send(true);
+      in = BufferInput.get(socket.getInputStream());
+      return true;
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      server.remove(this);
+      return false;
+    }
+  }
+
+  /**
+   * Evaluates the login data of the client.
+   * @param wait wait before rejecting a failed login. Otherwise, the delay is assigned to
+   *   {@link #rejection}, and the rejection is left to the caller
+   * @return success flag
+   */
+  private boolean login(final boolean wait) {
+    boolean auth = false;
+    try {
+      final byte[] address = socket.getInetAddress().getAddress();
 
       // evaluate login data
-      in = BufferInput.get(socket.getInputStream());
       // receive {USER}0{DIGEST-HASH}0
       final String name = in.readString(), hash = in.readString();
       final User user = context.users.get(name);
@@ -190,20 +255,26 @@ public final class ClientListener extends Thread implements ClientInfo {
       // write log information
       if(auth) {
         context.user(user);
-        // send {OK}
-        send(true);
         context.blocker.remove(address);
         context.sessions.add(this);
+        // send {OK}
+        send(true);
       } else {
         if(!name.isEmpty()) log(LogType.ERROR, ACCESS_DENIED);
         // delay users with wrong passwords
-        context.blocker.delay(address);
-        send(false);
+        final long delay = context.blocker.register(address);
+        if(wait) {
+          Performance.sleep(delay);
+          send(false);
+        } else {
+          rejection = delay;
+        }
       }
     } catch(final IOException ex) {
       if(auth) {
         Util.stack(ex);
         log(LogType.ERROR, Util.message(ex));
+        context.sessions.remove(this);
         auth = false;
       }
     }
@@ -229,7 +300,8 @@ public final class ClientListener extends Thread implements ClientInfo {
     context.sessions.remove(this);
 
     try {
-      Close.close(context);
+      // no user has been assigned if the login failed
+      if(authenticated) Close.close(context);
       socket.close();
     } catch(final Throwable ex) {
       log(LogType.ERROR, Util.message(ex));
@@ -237,6 +309,76 @@ public final class ClientListener extends Thread implements ClientInfo {
     }
   }
 
+  /**
+   * Returns query results via a server-side cursor. The cursor is stopped, and the locks are
+   * released, if the client does not request the next chunk within the specified idle time.
+   * @param qp query process
+   * @param size size of the first chunk
+   * @return {@code false} if the cursor has been stopped after the idle timeout
+   * @throws IOException I/O exception
+   */
+  private boolean fetch(final ServerQuery qp, final int size) throws IOException {
+    socket.setSoTimeout(context.soptions.get(StaticOptions.CURSORTIMEOUT) * 1000);
+    try {
+      qp.execute(out, in, size);
+      return true;
+    } catch(final SocketTimeoutException ex) {
+      Util.debug(ex);
+      expired = true;
+      return false;
+    } finally {
+      socket.setSoTimeout(0);
+    }
+  }
+
+  /**
+   * Answers the pending request for a cursor that has been stopped after the idle timeout:
+   * a request for the next chunk is rejected, and a stop request is confirmed.
+   * @throws IOException I/O exception
+   */
+  private void expired() throws IOException {
+    expired = false;
+    final boolean stop = Strings.toInt(in.readString()) <= 0;
+    // send 0 as end marker and 0 as success flag, or 1 as error flag and {MSG}0
+    out.write(0);
+    if(stop) {
+      out.write(0);
+    } else {
+      out.write(1);
+      out.print(TIMEOUT_EXCEEDED);
+      out.write(0);
+    }
+    out.flush();
+  }
+
+  /**
+   * Returns the delay before a failed login is to be rejected.
+   * @return delay in milliseconds ({@code -1}: no rejection)
+   */
+  long rejection() {
+    return rejection;
+  }
+
+  /**
+   * Rejects a failed login and closes the session.
+   */
+  void reject() {
+    try {
+      send(false);
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+    close();
+  }
+
+  /**
+   * Returns the socket of this session.
+   * @return socket
+   */
+  Socket socket() {
+    return socket;
+  }
+
   /**
    * Returns the context of this session.
    * @return user reference
@@ -393,6 +535,17 @@ public final class ClientListener extends Thread implements ClientInfo {
           if(!typ.isEmpty()) info.append(" as ").append(typ);
         } else if(sc == ServerCmd.RESULTS) {
           qp.execute(out, true, true, false);
+        } else if(sc == ServerCmd.FETCH) {
+          final int size = Strings.toInt(in.readString());
+          if(dispatched) {
+            // workers of the dispatcher must not be blocked: return all results at once
+            log(LogType.INFO, sc.toString() + '[' + arg + "] Fetch size " + size +
+                " ignored, all results are returned at once.");
+            qp.execute(out, true, true, false);
+          } else if(!fetch(qp, size)) {
+            log(LogType.ERROR, sc.toString() + '[' + arg + "] " + TIMEOUT_EXCEEDED);
+            return;
+          }
         } else if(sc == ServerCmd.EXEC) {
           qp.execute(out, false, true, false);
         } else if(sc == ServerCmd.FULL) {
@@ -433,6 +586,62 @@ public final class ClientListener extends Thread implements ClientInfo {
     out.flush();
   }
 
+  /**
+   * Executes a query several times, with different bindings.
+   * The results are sent in the same way as for single executions. Evaluation is stopped after
+   * the first error.
+   * @throws IOException I/O exception
+   */
+  private void batch() throws IOException {
+    // receive all bindings before the query is evaluated
+    final String arg = in.readString();
+    final int size = Strings.toInt(in.readString());
+    final ArrayList<String[]> bindings = new ArrayList<>(Math.max(0, size));
+    for(int s = 0; s < size; s++) {
+      final int bs = Strings.toInt(in.readString()) * 3;
+      final String[] binding = new String[Math.max(0, bs)];
+      for(int b = 0; b < bs; b++) binding[b] = in.readString();
+      bindings.add(binding);
+    }
+
+    final ServerQuery qp = queries.get(arg);
+    String error = qp == null ? "Unknown Query ID: " + arg : null;
+    for(int s = 0; s < size && error == null; s++) {
+      final String[] binding = bindings.get(s);
+      final StringBuilder info = new StringBuilder();
+      try {
+        final int bs = binding.length;
+        for(int b = 0; b < bs; b += 3) {
+          final String key = binding[b], val = binding[b + 1], typ = binding[b + 2];
+          if(key.isEmpty()) qp.context(val, typ);
+          else qp.bind(key, val, typ);
+          if(info.length() != 0) info.append(", ");
+          info.append(key).append('=').append(val);
+          if(!typ.isEmpty()) info.append(" as ").append(typ);
+        }
+        qp.execute(out, false, true, false);
+        // send 0 as end marker and success flag
+        out.write(0);
+        out.write(0);
+        log(LogType.OK, ServerCmd.BATCH.toString() + '[' + arg + "] " + info);
+      } catch(final Throwable ex) {
+        // log exception (static or runtime)
+        error = ex instanceof RuntimeException ? Util.bug(ex) : Util.message(ex);
+        log(LogType.REQUEST, ServerCmd.BATCH + "[" + arg + "] " + info);
+        queries.remove(arg);
+      }
+    }
+    if(error != null) {
+      log(LogType.ERROR, error);
+      // send 0 as end marker, 1 as error flag, and {MSG}0
+      out.write(0);
+      out.write(1);
+      out.print(error);
+      out.write(0);
+    }
+    out.flush();
+  }
+
   /**
    * Sends a success flag to the client (0: true, 1: false).
    * @param ok success flag
@@ -33,6 +33,20 @@ public enum ServerCmd {
   STORE(13),
   /** Code for binding a context value: {id}0{val}0{type}0. */
   CONTEXT(14),
+  /**
+   * Code for executing a query with different bindings: {id}0{n}0, followed by n binding sets,
+   * each consisting of {m}0 and m times {name}0{val}0{type}0 (empty name: context value).
+   */
+  BATCH(15),
+  /**
+   * Code for returning results in chunks (server-side cursor): {id}0{size}0. If more results
+   * are available, the size of the next chunk is requested: {size}0 (0: stop iteration).
+   * The session and the locks of the query are kept until the cursor has been processed, or until
+   * it is stopped after {@link org.basex.core.StaticOptions#CURSORTIMEOUT}. If the session is
+   * served by the {@link ClientDispatcher}, all results are returned in the first chunk, and
+   * the ignored chunk size is logged.
+   */
+  FETCH(16),
   /** Code for returning the update flag: {id}0. */
   UPDATING(30),
   /** Code for executing a query and returning all information relevant for XQJ: {id}0. */
@@ -7,6 +7,7 @@ import java.io.*;
 import org.basex.api.client.*;
 import org.basex.core.*;
 import org.basex.core.jobs.*;
+import org.basex.io.in.*;
 import org.basex.io.out.*;
 import org.basex.io.serial.*;
 import org.basex.query.*;
@@ -111,6 +112,36 @@ public final class ServerQuery extends Job {
    */
   public void execute(final OutputStream out, final boolean iterative, final boolean encode,
       final boolean full) throws IOException {
+    execute(out, iterative, encode, full, null, 0);
+  }
+
+  /**
+   * Executes the query and returns the results in chunks (server-side cursor). After each chunk,
+   * evaluation is suspended until the client requests the next chunk or stops the cursor.
+   * Locks are kept until the cursor has been completely processed, or until reading from the
+   * input stream times out.
+   * @param out output stream
+   * @param in input stream for reading the size of the next chunk ({@code 0}: stop)
+   * @param size size of the first chunk
+   * @throws IOException I/O Exception
+   */
+  public void execute(final OutputStream out, final BufferInput in, final int size)
+      throws IOException {
+    execute(out, true, true, false, in, Math.max(1, size));
+  }
+
+  /**
+   * Executes the query.
+   * @param out output stream
+   * @param iterative iterative evaluation
+   * @param encode encode results (client/server communication, iterative processing)
+   * @param full return full type information (only applicable to iterative evaluation)
+   * @param in input stream for reading chunk sizes (cursor; can be {@code null})
+   * @param size size of the first chunk (cursor)
+   * @throws IOException I/O Exception
+   */
+  private void execute(final OutputStream out, final boolean iterative, final boolean encode,
+      final boolean full, final BufferInput in, final int size) throws IOException {
 
     try {
       // parses the query and registers the process
@@ -130,7 +161,16 @@ public final class ServerQuery extends Job {
       final PrintOutput po = PrintOutput.get(encode ? new ServerOutput(out) : out);
       final SerializerOptions sopts = full ? SerializerMode.API.get() : qc.serParams();
       try(Serializer ser = Serializer.get(po, sopts)) {
+        int chunk = size;
         for(Item item; (item = qc.next(iter)) != null;) {
+          if(in != null && chunk-- == 0) {
+            // cursor: send 0 as end marker and 2 as suspension flag, receive size of next chunk
+            out.write(0);
+            out.write(2);
+            out.flush();
+            chunk = Strings.toInt(in.readString()) - 1;
+            if(chunk < 0) break;
+          }
           if(iterative) {
             if(full) po.write(item.xdmInfo());
             else po.write(item.typeId().asByte());
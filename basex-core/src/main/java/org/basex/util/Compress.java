@@ -5,8 +5,10 @@ import java.util.*;
 import org.basex.data.*;
 
 /**
- * This class compresses and decompresses tokens. It is inspired by the
- * Huffman coding, but was simplified to speed up processing.
+ * This class compresses and decompresses tokens. The default packer is inspired by the
+ * Huffman coding, but was simplified to speed up processing. If enabled, longer tokens
+ * will additionally be compressed with a byte-oriented LZ packer, which detects repeated
+ * byte sequences and is independent of the character set.
  *
  * @author BaseX Team 2005-19, BSD License
  * @author Christian Gruen
@@ -14,10 +16,29 @@ import org.basex.data.*;
 public final class Compress {
   /** Offset for compressing texts (see {@link DiskData}). */
   public static final long COMPRESS = 0x4000000000L;
+  /** Minimum length of tokens that will be compressed with the LZ packer. */
+  private static final int LZ_MIN = 32;
+  /** Minimum length of repeated byte sequences. */
+  private static final int LZ_MATCH = 4;
+  /** Maximum distance of repeated byte sequences. */
+  private static final int LZ_DIST = 0xFFFF;
 
   /** Private constructor. */
   private Compress() { }
 
+  /**
+   * Compresses the specified text. Returns the original text if the packed text is not shorter.
+   * @param text text to be packed
+   * @param lz try LZ packer as well, and choose the shorter result
+   * @return packed or original text
+   */
+  public static byte[] pack(final byte[] text, final boolean lz) {
+    final byte[] packed = pack(text);
+    if(!lz || text.length < LZ_MIN) return packed;
+    final byte[] lzpacked = packLZ(text, packed.length);
+    return lzpacked != null ? lzpacked : packed;
+  }
+
   /**
    * Compresses the specified text. Returns the original text if the packed text is not shorter.
    * @param text text to be packed
@@ -96,8 +117,12 @@ public final class Compress {
    * @return unpacked text
    */
   public static byte[] unpack(final byte[] text) {
+    // first bit after stored length: packer version
+    final int nl = Num.length(text, 0);
+    if((text[nl] & 1) != 0) return unpackLZ(text, nl);
+
     // bit position: skip stored length and packer bit
-    int pos = (Num.length(text, 0) << 3) + 1;
+    int pos = (nl << 3) + 1;
     // choose mapping
     final byte[] map = isSet(text, pos++) ? UNPACK1 : UNPACK2;
 
@@ -129,6 +154,136 @@ public final class Compress {
     return bytes;
   }
 
+  /**
+   * Compresses the specified text with the LZ packer. The packed text consists of
+   * the original length, the packer version (1) and a list of sequences. Each sequence
+   * starts with a byte containing the number of literal bytes (upper 4 bits) and the
+   * length of the repeated byte sequence (lower 4 bits; minus {@link #LZ_MATCH}).
+   * Larger lengths are continued by additional bytes. The literal bytes are followed by the
+   * distance of the repeated bytes (2 bytes). The last sequence only contains literals.
+   * @param text text to be packed
+   * @param max maximum size of the packed text (exclusive)
+   * @return packed text, or {@code null} if it is not shorter than the specified size
+   */
+  private static byte[] packLZ(final byte[] text, final int max) {
+    final int tl = text.length, bits = Math.min(12, 32 - Integer.numberOfLeadingZeros(tl));
+    final int[] table = new int[1 << bits];
+    Arrays.fill(table, -1);
+
+    final byte[] bytes = new byte[max];
+    int size = Num.set(bytes, tl);
+    bytes[size++] = 1;
+
+    final int last = tl - LZ_MATCH;
+    int lit = 0, p = 0;
+    while(p <= last) {
+      final int v = (text[p] & 0xFF) << 24 | (text[p + 1] & 0xFF) << 16 |
+          (text[p + 2] & 0xFF) << 8 | text[p + 3] & 0xFF, h = v * 0x9E3779B1 >>> 32 - bits;
+      final int r = table[h];
+      table[h] = p;
+      if(r >= 0 && p - r <= LZ_DIST && text[r] == text[p] && text[r + 1] == text[p + 1] &&
+          text[r + 2] == text[p + 2] && text[r + 3] == text[p + 3]) {
+        int len = LZ_MATCH;
+        while(p + len < tl && text[r + len] == text[p + len]) len++;
+        size = sequence(bytes, size, text, lit, p - lit, p - r, len);
+        if(size == -1) return null;
+        p += len;
+        lit = p;
+      } else {
+        p++;
+      }
+    }
+    size = sequence(bytes, size, text, lit, tl - lit, 0, 0);
+    return size == -1 ? null : Arrays.copyOf(bytes, size);
+  }
+
+  /**
+   * Writes a sequence of the LZ packer.
+   * @param bytes target array
+   * @param size current size of target array
+   * @param text text to be packed
+   * @param start offset of literals
+   * @param lit number of literals
+   * @param dist distance of repeated bytes ({@code 0} for the last sequence)
+   * @param len number of repeated bytes
+   * @return new size, or {@code -1} if the target array is too small
+   */
+  private static int sequence(final byte[] bytes, final int size, final byte[] text,
+      final int start, final int lit, final int dist, final int len) {
+
+    final int ml = len - LZ_MATCH, max = bytes.length;
+    // check size: sequence byte, literals, length bytes, distance
+    if(size + 2 + lit + lit / 0xFF + (dist == 0 ? 0 : 3 + ml / 0xFF) >= max) return -1;
+
+    int s = size;
+    bytes[s++] = (byte) (Math.min(lit, 0x0F) << 4 | (dist == 0 ? 0 : Math.min(ml, 0x0F)));
+    s = length(bytes, s, lit);
+    Array.copy(text, start, lit, bytes, s);
+    s += lit;
+    if(dist != 0) {
+      bytes[s++] = (byte) dist;
+      bytes[s++] = (byte) (dist >>> 8);
+      s = length(bytes, s, ml);
+    }
+    return s;
+  }
+
+  /**
+   * Writes the remaining bytes of a length that does not fit into 4 bits.
+   * @param bytes target array
+   * @param size current size of target array
+   * @param length length
+   * @return new size
+   */
+  private static int length(final byte[] bytes, final int size, final int length) {
+    int s = size;
+    if(length >= 0x0F) {
+      int l = length - 0x0F;
+      for(; l >= 0xFF; l -= 0xFF) bytes[s++] = (byte) 0xFF;
+      bytes[s++] = (byte) l;
+    }
+    return s;
+  }
+
+  /**
+   * Decompresses a text that has been compressed with the LZ packer.
+   * @param text compressed text
+   * @param start offset of the packer version
+   * @return unpacked text
+   */
+  private static byte[] unpackLZ(final byte[] text, final int start) {
+    final int size = Num.get(text, 0);
+    final byte[] bytes = new byte[size];
+    int p = start + 1, s = 0;
+    while(true) {
+      final int b = text[p++] & 0xFF;
+      int lit = b >>> 4;
+      if(lit == 0x0F) {
+        int l;
+        do {
+          l = text[p++] & 0xFF;
+          lit += l;
+        } while(l == 0xFF);
+      }
+      Array.copy(text, p, lit, bytes, s);
+      p += lit;
+      s += lit;
+      if(s == size) return bytes;
+
+      final int dist = text[p++] & 0xFF | (text[p++] & 0xFF) << 8;
+      int len = b & 0x0F;
+      if(len == 0x0F) {
+        int l;
+        do {
+          l = text[p++] & 0xFF;
+          len += l;
+        } while(l == 0xFF);
+      }
+      // repeated bytes may overlap: copy byte by byte
+      for(final int e = s + len + LZ_MATCH; s < e; s++) bytes[s] = bytes[s - dist];
+    }
+  }
+
   /**
    * Indicates if the specified value is inlined.
    * @param value value
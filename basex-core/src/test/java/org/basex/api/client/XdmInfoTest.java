@@ -8,7 +8,6 @@ import java.util.*;
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.users.*;
-import org.basex.io.in.*;
 import org.basex.io.out.*;
 import org.basex.server.*;
 import org.basex.util.*;
@@ -103,18 +102,20 @@ public final class XdmInfoTest extends SandboxTest {
      * Executes a command and sends the result to the specified output stream.
      * @param cmd server command
      * @param arg argument
+     * @param query query that sends the command
      * @return string
      * @throws IOException I/O exception
      */
-    byte[] exec(final ServerCmd cmd, final String arg) throws IOException {
+    byte[] exec(final ServerCmd cmd, final String arg, final ClientQuery query)
+        throws IOException {
       final ArrayOutput ao = new ArrayOutput();
       sout.write(cmd.code);
       send(arg);
-      sout.flush();
-      @SuppressWarnings("resource")
-      final BufferInput bi = BufferInput.get(sin);
-      ClientSession.receive(bi, ao);
-      if(!ClientSession.ok(bi)) throw new BaseXException(bi.readString());
+      final String error = flush(query);
+      // read single result item and end marker
+      ClientSession.receive(sin, ao);
+      assertEquals(0, sin.read());
+      check(error);
       return ao.finish();
     }
   }
@@ -140,7 +141,7 @@ public final class XdmInfoTest extends SandboxTest {
      * @throws IOException I/O exception
      */
     TestResult full(final Object[] exp) throws IOException {
-      final byte[] result = ((TestSession) cs).exec(ServerCmd.FULL, id);
+      final byte[] result = ((TestSession) cs).exec(ServerCmd.FULL, id, this);
       final TestResult tr = new TestResult();
       tr.type = result[0];
       final int rl = result.length, b = Token.indexOf(result, 0);
@@ -167,7 +168,7 @@ public final class XdmInfoTest extends SandboxTest {
      * @throws IOException I/O exception
      */
     TestResult iter() throws IOException {
-      final byte[] result = ((TestSession) cs).exec(ServerCmd.RESULTS, id);
+      final byte[] result = ((TestSession) cs).exec(ServerCmd.RESULTS, id, this);
       final TestResult tr = new TestResult();
       tr.type = result[0];
       tr.result = Arrays.copyOfRange(result, 1, result.length);
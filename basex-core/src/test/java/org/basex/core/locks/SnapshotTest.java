@@ -0,0 +1,67 @@
+package org.basex.core.locks;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.junit.Test;
+
+/**
+ * This class tests read-only queries on snapshots of updated databases.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class SnapshotTest extends SandboxTest {
+  /** Query for returning all jobs except for the current one. */
+  private static final String LIST_JOBS = _JOBS_LIST.args() + '[' + _JOBS_CURRENT.args() + "!= .]";
+  /** Slow updating query. */
+  private static final String UPDATE = "replace value of node " + _DB_OPEN.args(NAME) +
+      "/a with (" + _PROF_SLEEP.args(3000) + ", 2)";
+  /** Reading query. */
+  private static final String READ = _DB_OPEN.args(NAME) + "/a/string()";
+
+  /** Test. */
+  @Test public void readSnapshot() throws InterruptedException {
+    execute(new CreateDB(NAME, "<a>1</a>"));
+    execute(new Close());
+    context.soptions.set(StaticOptions.SNAPSHOTS, true);
+    try {
+      // start slow updating query
+      final Thread thread = new Thread(() -> query(UPDATE));
+      thread.start();
+      do { } while(query(LIST_JOBS).isEmpty());
+
+      // read snapshot without waiting for the update
+      final long time = System.nanoTime();
+      assertEquals("1", query(READ));
+      assertTrue((System.nanoTime() - time) / 1000000 < 2000);
+
+      // updated database is read after completion of the update
+      thread.join();
+      assertEquals("2", query(READ));
+
+      // snapshot has been deleted
+      final IOFile dir = context.soptions.dbPath(".snapshots");
+      assertTrue(!dir.exists() || dir.children().length == 0);
+    } finally {
+      context.soptions.set(StaticOptions.SNAPSHOTS, false);
+      execute(new DropDB(NAME));
+    }
+  }
+
+  /** Without snapshots, read-only queries wait for the update. */
+  @Test public void noSnapshot() {
+    execute(new CreateDB(NAME, "<a>1</a>"));
+    try {
+      new Thread(() -> query(UPDATE)).start();
+      do { } while(query(LIST_JOBS).isEmpty());
+      assertEquals("2", query(READ));
+    } finally {
+      execute(new DropDB(NAME));
+    }
+  }
+}
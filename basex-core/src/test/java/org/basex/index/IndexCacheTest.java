@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.junit.*;
 
 /**
@@ -22,6 +23,11 @@ public final class IndexCacheTest {
     cache = new IndexCache();
   }
 
+  /** Resets the cache size. */
+  @After public void reset() {
+    IndexCache.size(StaticOptions.INDEXCACHE.value());
+  }
+
   /** Test for method {@link IndexCache#get(byte[])}. */
   @Test public void testGetNotExisting() {
     for(int i = 0; i < 4000; ++i) {
@@ -69,6 +75,28 @@ public final class IndexCacheTest {
     assertNull(cache.get(key));
   }
 
+  /** Test for the size limit of the cache. */
+  @Test public void testBounded() {
+    IndexCache.size(1);
+    cache = new IndexCache();
+    final byte[] hot = token("keyHot");
+    cache.add(hot, 1, 1L);
+    for(int i = 0; i < 100000; ++i) {
+      cache.add(token("keyBounded" + i), i, i);
+      // frequently requested entry will not be evicted
+      if(i % 100 == 0) assertNotNull(cache.get(hot));
+    }
+    final int size = cache.size();
+    assertTrue(size > 0 && size < 100000);
+    assertTrue(cache.info().contains(" 0 misses"));
+
+    IndexCache.size(0);
+    cache = new IndexCache();
+    cache.add(hot, 1, 1L);
+    assertNull(cache.get(hot));
+    assertEquals(0, cache.size());
+  }
+
   /**
    * Test that new records can be continuously added without hitting
    * {@link OutOfMemoryError}.
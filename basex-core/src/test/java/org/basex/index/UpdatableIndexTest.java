@@ -0,0 +1,97 @@
+package org.basex.index;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for updatable index structures: pending index changes are merged when an update
+ * is finished.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class UpdatableIndexTest extends SandboxTest {
+  /** Creates a test database. */
+  @Before public void create() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.TOKENINDEX, true);
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 1; i <= 1000; i++) {
+      sb.append("<x a='").append(i % 10).append("' b='t").append(i % 7).append(" u'>");
+      sb.append(i % 13).append("</x>");
+    }
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+  }
+
+  /** Resets the options. */
+  @After public void reset() {
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.TOKENINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Replaces values several times within a single update.
+   */
+  @Test public void replace() {
+    query("for $x in //x[position() mod 2 = 0] return ("
+        + "replace value of node $x with 'new', replace value of node $x/@a with 'new', "
+        + "replace value of node $x/@b with 'u v')");
+    check();
+    query("for $x in //x[position() mod 3 = 0] return ("
+        + "replace value of node $x with $x/@a, replace value of node $x/@a with $x/text())");
+    check();
+  }
+
+  /**
+   * Inserts nodes and deletes them within a single update.
+   */
+  @Test public void insertDelete() {
+    query("insert node <y a='new' b='u'>new</y> into /xml");
+    query("for $x in //x[position() mod 5 = 0] return ("
+        + "insert node <y a='1' b='t1 new'>new</y> into $x, "
+        + "delete node $x/@a)");
+    check();
+    query("delete node //y");
+    check();
+    query("for $x in //x[position() mod 4 = 0] return delete node $x");
+    check();
+  }
+
+  /**
+   * Renames attributes and replaces nodes.
+   */
+  @Test public void rename() {
+    query("for $x in //x[position() mod 2 = 0] return rename node $x/@b as 'c'");
+    query("for $x in //x[position() mod 3 = 0] return replace node $x/text() with 'new'");
+    check();
+    execute(new Close());
+    execute(new Open(NAME));
+    check();
+  }
+
+  /**
+   * Compares index results with the results of a sequential scan.
+   */
+  private static void check() {
+    for(final String value : new String[] { "0", "1", "3", "new", "t1 u", "u v" }) {
+      assertEquals(value, query("count(//text()[. = '" + value + "'])"),
+          query("count(db:text('" + NAME + "', '" + value + "'))"));
+      assertEquals(value, query("count(//@*[. = '" + value + "'])"),
+          query("count(db:attribute('" + NAME + "', '" + value + "'))"));
+    }
+    for(final String value : new String[] { "t1", "u", "v", "new" }) {
+      assertEquals(value, query("count(//@*[tokenize(.) = '" + value + "'])"),
+          query("count(db:token('" + NAME + "', '" + value + "'))"));
+    }
+    assertEquals(query("count(distinct-values(//text()))"),
+        query("count(index:texts('" + NAME + "'))"));
+    assertEquals(query("count(distinct-values(//@*))"),
+        query("count(index:attributes('" + NAME + "'))"));
+  }
+}
@@ -0,0 +1,110 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for class {@link BufferPool}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class BufferPoolTest extends SandboxTest {
+  /** Number of elements. */
+  private static final int SIZE = 20000;
+
+  /** Resets the pool size. */
+  @After public void reset() {
+    BufferPool.size(StaticOptions.BUFFERPOOL.value());
+  }
+
+  /**
+   * Reads blocks from the pool after they have been displaced from the local buffers.
+   */
+  @Test public void read() {
+    create();
+    final String query = "sum(//x)";
+    final String sum = query(query);
+    assertTrue(BufferPool.blocks() > 0);
+
+    // results must be identical if the pool is disabled
+    execute(new Close());
+    BufferPool.size(0);
+    execute(new Open(NAME));
+    assertEquals(sum, query(query));
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Reads updated blocks.
+   */
+  @Test public void update() {
+    create();
+    query("sum(//x)");
+    query("for $x in //x[. mod 100 = 0] return replace value of node $x with 1");
+    query("for $x in //x[. mod 99 = 0] return insert node <x>2</x> after $x");
+    final String sum = query("sum(//x)");
+    execute(new Close());
+    execute(new Open(NAME));
+    assertEquals(sum, query("sum(//x)"));
+    execute(new Close());
+    BufferPool.size(0);
+    execute(new Open(NAME));
+    assertEquals(sum, query("sum(//x)"));
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Prefetched blocks that are requested once must not displace protected blocks.
+   */
+  @Test public void prefetch() {
+    BufferPool.size(1);
+    final Buffers bm = new Buffers();
+    final Buffer bf = new Buffer();
+    try {
+      // protect blocks by requesting them after they have been cached
+      final int blocks = 16;
+      for(int p = 0; p < blocks; p++) {
+        bf.pos = p;
+        bm.cache(bf);
+        assertTrue(BufferPool.get(bm, bf));
+      }
+      // scan: prefetch blocks and request each block once
+      for(int p = blocks; p < blocks + 10000; p++) {
+        bf.pos = p;
+        bm.prefetched(bf);
+        assertTrue(BufferPool.get(bm, bf));
+      }
+      for(int p = 0; p < blocks; p++) assertTrue("Block " + p, BufferPool.contains(bm, p));
+    } finally {
+      bm.release();
+    }
+  }
+
+  /**
+   * Returns pool statistics.
+   */
+  @Test public void info() {
+    create();
+    query("count(//x)");
+    assertTrue(execute(new InfoStorage()).contains(Text.BUFFER_POOL));
+    assertFalse(execute(new InfoStorage("1", "2")).contains(Text.BUFFER_POOL));
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Creates a test database.
+   */
+  private static void create() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 1; i <= SIZE; i++) sb.append("<x>").append(i).append("</x>");
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+    execute(new Close());
+    execute(new Open(NAME));
+  }
+}
@@ -0,0 +1,130 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Reads database tables and texts in parallel.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class ConcurrentReadTest extends SandboxTest {
+  /** Number of elements. */
+  private static final int SIZE = 20000;
+  /** Query. */
+  private static final String QUERY = "sum(//x) || string-join(//x/@a) || count(//text())";
+  /** Error. */
+  private Throwable error;
+  /** Reference result. */
+  private String result;
+
+  /** Resets memory mapping. */
+  @After public void reset() {
+    MappedFile.enable(false);
+  }
+
+  /**
+   * Reads files with separate cursors.
+   * @throws Throwable throwable
+   */
+  @Test public void read() throws Throwable {
+    create();
+    run();
+    query("for $a in //x[. mod 3 = 0]/@a return replace value of node $a with 'abcdefghijk'");
+    run();
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Reads memory-mapped files.
+   * @throws Throwable throwable
+   */
+  @Test public void mapped() throws Throwable {
+    MappedFile.enable(true);
+    read();
+  }
+
+  /**
+   * Opens, reads and closes database files repeatedly. Closed files must not be referenced
+   * by the cursors of long-lived threads.
+   * @throws Throwable throwable
+   */
+  @Test public void reopen() throws Throwable {
+    create();
+    final MetaData meta = context.data().meta;
+    execute(new Close());
+
+    final ExecutorService pool = Executors.newSingleThreadExecutor();
+    final ArrayList<WeakReference<Object>> refs = new ArrayList<>();
+    try {
+      for(int i = 0; i < 100; i++) {
+        final TableDiskAccess table = new TableDiskAccess(meta, false);
+        final DataAccess texts = new DataAccess(meta.dbfile(DataText.DATATXT));
+        refs.add(new WeakReference<>(table));
+        refs.add(new WeakReference<>(texts));
+        final Callable<Long> read = () -> table.read5(SIZE, 0) + texts.read5(0);
+        assertEquals(read.call(), pool.submit(read).get());
+        table.close();
+        texts.close();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    for(int i = 0; i < 10 && refs.stream().anyMatch(ref -> ref.get() != null); i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    for(final WeakReference<Object> ref : refs) assertNull(ref.get());
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Runs queries in parallel and compares the results.
+   * @throws Throwable throwable
+   */
+  private void run() throws Throwable {
+    result = query(QUERY);
+    final ArrayList<Query> queries = new ArrayList<>();
+    for(int i = 0; i < 8; i++) queries.add(new Query());
+    for(final Query q : queries) q.start();
+    for(final Query q : queries) q.join();
+    if(error != null) throw error;
+  }
+
+  /**
+   * Creates a test database.
+   */
+  private static void create() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 1; i <= SIZE; i++) {
+      sb.append("<x a='").append(i * 12345L).append("'>").append(i).append("</x>");
+    }
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+    execute(new Close());
+    execute(new Open(NAME));
+  }
+
+  /**
+   * Query instance.
+   */
+  private class Query extends Thread {
+    @Override
+    public void run() {
+      try {
+        assertEquals(result, query(QUERY));
+      } catch(final Throwable th) {
+        error = th;
+      }
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for class {@link Journal}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class JournalTest extends SandboxTest {
+  /** Name of the copied database. */
+  private static final String COPY = NAME + "Copy";
+  /** Number of elements. */
+  private static final int SIZE = 5000;
+  /** Query. */
+  private static final String QUERY = "count(//x), sum(//x/@a), count(//x[text() = 'abcdefghijk'])";
+
+  /** Resets the options. */
+  @After public void reset() {
+    set(MainOptions.JOURNAL, false);
+    set(MainOptions.AUTOFLUSH, true);
+    set(MainOptions.UPDINDEX, false);
+    execute(new DropDB(NAME));
+    execute(new DropDB(COPY));
+  }
+
+  /**
+   * Commits updates.
+   */
+  @Test public void commit() {
+    set(MainOptions.JOURNAL, true);
+    create();
+    final String result = query(QUERY);
+    update();
+    assertFalse(journal(NAME).exists());
+    assertNotEquals(result, query(QUERY));
+
+    set(MainOptions.AUTOFLUSH, false);
+    update();
+    assertTrue(journal(NAME).exists());
+    execute(new Flush());
+    assertFalse(journal(NAME).exists());
+    update();
+    execute(new Close());
+    assertFalse(journal(NAME).exists());
+  }
+
+  /**
+   * Restores a database after an interrupted update.
+   * @throws IOException I/O exception
+   */
+  @Test public void recover() throws IOException {
+    recover(false);
+  }
+
+  /**
+   * Restores a database with updatable indexes after an interrupted update.
+   * @throws IOException I/O exception
+   */
+  @Test public void recoverIndexes() throws IOException {
+    set(MainOptions.UPDINDEX, true);
+    recover(true);
+  }
+
+  /**
+   * Restores a database after an interrupted update.
+   * @param index check index access
+   * @throws IOException I/O exception
+   */
+  private static void recover(final boolean index) throws IOException {
+    set(MainOptions.JOURNAL, true);
+    set(MainOptions.AUTOFLUSH, false);
+    create();
+    final String result = query(QUERY);
+
+    // perform updates, write table pages, and copy the files before the changes are committed
+    update();
+    update();
+    final Data data = context.data();
+    synchronized(data) {
+      data.flush(false);
+      copy();
+    }
+    assertTrue(journal(COPY).exists());
+
+    // the original database contains the changes, the copy is restored
+    execute(new Close());
+    execute(new Open(NAME));
+    final String updated = query(QUERY);
+    assertNotEquals(result, updated);
+    execute(new Open(COPY));
+    assertFalse(journal(COPY).exists());
+    assertFalse(context.data().meta.corrupt);
+    assertEquals(result, query(QUERY));
+    if(index) {
+      assertEquals(query("count(//x[text() = 'abcdefghijk'])"),
+          query("count(db:text('" + COPY + "', 'abcdefghijk'))"));
+    }
+
+    // the restored database can be updated again
+    set(MainOptions.AUTOFLUSH, true);
+    update();
+    assertEquals(updated, query(QUERY.replace("//", "db:open('" + NAME + "')//")));
+  }
+
+  /**
+   * Restores a database after an interrupted update with {@link MainOptions#AUTOFLUSH}.
+   * The update marker and the journal are left on disk.
+   * @throws IOException I/O exception
+   */
+  @Test public void recoverAutoflush() throws IOException {
+    set(MainOptions.JOURNAL, true);
+    create();
+    final String result = query(QUERY);
+
+    // start an update, write table pages, and copy the files before the update is finished
+    final Data data = context.data();
+    synchronized(data) {
+      data.startUpdate(context.options);
+      for(int pre = data.meta.size - 1; pre > 0; pre -= 7) {
+        if(data.kind(pre) == Data.TEXT) data.update(pre, Data.TEXT, token("abcdefghijk"));
+      }
+      data.delete(3);
+      data.flush(false);
+      copy();
+      data.finishUpdate(context.options);
+    }
+    assertTrue(journal(COPY).exists());
+    assertTrue(MetaData.file(context.soptions.dbPath(COPY), DATAUPD).exists());
+
+    // the copy is restored when it is opened
+    execute(new Open(COPY));
+    assertFalse(journal(COPY).exists());
+    assertFalse(MetaData.file(context.soptions.dbPath(COPY), DATAUPD).exists());
+    assertFalse(context.data().meta.corrupt);
+    assertEquals(result, query(QUERY));
+  }
+
+  /**
+   * Copies the files of the test database.
+   * @throws IOException I/O exception
+   */
+  private static void copy() throws IOException {
+    final IOFile source = context.soptions.dbPath(NAME), target = context.soptions.dbPath(COPY);
+    target.md();
+    for(final IOFile file : source.children()) file.copyTo(new IOFile(target, file.name()));
+  }
+
+  /**
+   * Creates a test database.
+   */
+  private static void create() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 1; i <= SIZE; i++) {
+      sb.append("<x a='").append(i).append("'>text").append(i).append("</x>");
+    }
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+    execute(new Close());
+    execute(new Open(NAME));
+  }
+
+  /**
+   * Updates the opened database.
+   */
+  private static void update() {
+    query("for $x in //x[position() mod 3 = 0] return replace value of node $x/@a with 1");
+    query("for $x in //x[position() mod 7 = 0] return replace value of node $x with 'abcdefghijk'");
+    query("for $x in //x[position() mod 11 = 0] return delete node $x");
+    query("insert node <x a='1'>abcdefghijk</x> into /xml");
+  }
+
+  /**
+   * Returns the journal file of a database.
+   * @param db name of database
+   * @return journal file
+   */
+  private static IOFile journal(final String db) {
+    return MetaData.file(context.soptions.dbPath(db), DATAJRN);
+  }
+}
@@ -0,0 +1,147 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for memory-mapped read access ({@link MappedFile}).
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedFileTest extends SandboxTest {
+  /** Number of elements. */
+  private static final int SIZE = 10000;
+  /** Query. */
+  private static final String QUERY = "sum(//x) || string-join(//x/@a) || count(//text())";
+
+  /** Enables memory mapping. */
+  @Before public void enable() {
+    MappedFile.enable(true);
+  }
+
+  /** Resets memory mapping. */
+  @After public void reset() {
+    MappedFile.enable(StaticOptions.MMAP.value());
+  }
+
+  /**
+   * Reads mapped files.
+   */
+  @Test public void read() {
+    create();
+    final String result = query(QUERY);
+    execute(new Close());
+    MappedFile.enable(false);
+    execute(new Open(NAME));
+    assertEquals(result, query(QUERY));
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Reads mapped files after updates.
+   */
+  @Test public void update() {
+    create();
+    query(QUERY);
+    query("for $x in //x[. mod 100 = 0] return replace value of node $x with 1");
+    query("for $x in //x[. mod 99 = 0] return insert node <x a='b'>2</x> after $x");
+    query("delete node //x[. mod 98 = 0]");
+    final String result = query(QUERY);
+    execute(new Close());
+    MappedFile.enable(false);
+    execute(new Open(NAME));
+    assertEquals(result, query(QUERY));
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Reads updated texts without flushing them.
+   */
+  @Test public void noAutoflush() {
+    set(MainOptions.AUTOFLUSH, false);
+    try {
+      create();
+      query(QUERY);
+      query("for $x in //x[. mod 7 = 0] return replace value of node $x with 'abcdefghijk'");
+      query("for $x in //x/@a return replace value of node $x with 'lmnopqrstuvw'");
+      query("//x[. = 'abcdefghijk'][@a = 'lmnopqrstuvw']");
+      assertEquals(query("count(//x[. = 'abcdefghijk'])"), Integer.toString(SIZE / 7));
+      assertEquals(query("count(//x[@a = 'lmnopqrstuvw'])"), Integer.toString(SIZE));
+      execute(new DropDB(NAME));
+    } finally {
+      set(MainOptions.AUTOFLUSH, true);
+    }
+  }
+
+  /**
+   * Releases a mapping when the owner and the last reader have unpinned it.
+   * @throws IOException I/O exception
+   */
+  @Test public void pin() throws IOException {
+    final IOFile file = new IOFile(sandbox(), "pin");
+    file.write(new byte[] { 1, 2, 3 });
+    try(RandomAccessFile raf = new RandomAccessFile(file.file(), "r")) {
+      final MappedFile mf = new MappedFile(raf.getChannel(), 3);
+      assertTrue(mf.pin());
+      // owner drops the mapping: reader can still access it
+      mf.unpin();
+      assertEquals(3, mf.read1(2));
+      // reader leaves: mapping is released, and it cannot be pinned anymore
+      mf.unpin();
+      assertFalse(mf.pin());
+    }
+  }
+
+  /**
+   * Reads a mapped file that is overwritten, extended and truncated.
+   * @throws IOException I/O exception
+   */
+  @Test public void change() throws IOException {
+    final IOFile file = new IOFile(sandbox(), "change");
+    final int size = IO.BLOCKSIZE * 4;
+    file.write(new byte[size]);
+    try(DataAccess da = new DataAccess(file)) {
+      da.map();
+      assertEquals(0, da.read4(IO.BLOCKSIZE));
+      // mapped block is overwritten
+      da.write4(IO.BLOCKSIZE, 1);
+      da.flush();
+      assertEquals(1, da.read4(IO.BLOCKSIZE));
+      // file is extended
+      da.write4(size, 2);
+      da.flush();
+      assertEquals(1, da.read4(IO.BLOCKSIZE));
+      assertEquals(2, da.read4(size));
+      // last entry is replaced, file is truncated
+      final long pos = IO.BLOCKSIZE * 2;
+      da.writeToken(pos, new byte[size]);
+      da.flush();
+      da.free(pos, 0);
+      da.flush();
+      assertEquals(pos, da.length());
+      assertEquals(1, da.read4(IO.BLOCKSIZE));
+    }
+  }
+
+  /**
+   * Creates a test database.
+   */
+  private static void create() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 1; i <= SIZE; i++) {
+      sb.append("<x a='").append(i * 12345L).append("'>").append(i).append("</x>");
+    }
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+    execute(new Close());
+    execute(new Open(NAME));
+  }
+}
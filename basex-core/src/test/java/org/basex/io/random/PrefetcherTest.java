@@ -0,0 +1,69 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for class {@link Prefetcher}.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class PrefetcherTest extends SandboxTest {
+  /** Number of elements. */
+  private static final int SIZE = 50000;
+  /** Query. */
+  private static final String QUERY = "sum(//x/@a[. = 1])";
+
+  /** Resets the pool size and memory mapping. */
+  @After public void reset() {
+    BufferPool.size(StaticOptions.BUFFERPOOL.value());
+    MappedFile.enable(StaticOptions.MMAP.value());
+  }
+
+  /**
+   * Reads prefetched pages.
+   */
+  @Test public void scan() {
+    // pages of memory-mapped files will not be prefetched
+    MappedFile.enable(false);
+    create();
+    assertEquals("1", query(QUERY));
+    final String info = ((DiskData) context.data()).bufferInfo();
+    assertFalse(info, info.contains(" tbl: 0 hits"));
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Scans a table after it has been updated.
+   */
+  @Test public void update() {
+    create();
+    assertEquals("1", query(QUERY));
+    query("for $x in //x[position() mod 2 = 0] return delete node $x");
+    query("insert node <x a='1'/> into /xml");
+    assertEquals("2", query(QUERY));
+    execute(new Close());
+    BufferPool.size(0);
+    execute(new Open(NAME));
+    assertEquals("2", query(QUERY));
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Creates a test database.
+   */
+  private static void create() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 1; i <= SIZE; i++) sb.append("<x a='").append(i).append("'/>");
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+    execute(new Close());
+    execute(new Open(NAME));
+  }
+}
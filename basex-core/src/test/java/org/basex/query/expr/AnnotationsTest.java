@@ -43,6 +43,34 @@ public final class AnnotationsTest extends SandboxTest {
     error("declare %updating function local:x() { 1 }; local:x()", UPEXPECTF);
   }
 
+  /** Memoized functions. */
+  @Test public void memoize() {
+    final String fib = "declare %basex:memoize function local:fib($n) {"
+        + " if($n < 2) then $n else local:fib($n - 1) + local:fib($n - 2) }; ";
+    query(fib + "local:fib(80)", 23416728348467685L);
+    query(fib + "local:fib(80.0)", 23416728348467685L);
+    query("declare %basex:memoize(2) function local:f($a, $b) { $a || string-join($b) }; "
+        + "for $i in (1, 2, 3, 1, 2, 3, 1.0) return local:f($i, ('a', 'b'))",
+        "1ab\n2ab\n3ab\n1ab\n2ab\n3ab\n1ab");
+    query("declare %basex:memoize function local:f($a) { $a/text() }; "
+        + "local:f(<a>1</a>), local:f(<a>2</a>)", "1\n2");
+    // equal, but not identical arguments
+    query("declare %basex:memoize function local:f($d) { string($d) }; "
+        + "local:f(xs:dateTime('2020-01-01T01:00:00+01:00')), "
+        + "local:f(xs:dateTime('2020-01-01T00:00:00Z'))",
+        "2020-01-01T01:00:00+01:00\n2020-01-01T00:00:00Z");
+    query("declare %basex:memoize function local:f($q) { string($q) }; "
+        + "local:f(QName('U', 'a:x')), local:f(QName('U', 'b:x'))", "a:x\nb:x");
+    query("declare %basex:memoize function local:f($d) { string($d) }; "
+        + "local:f(0e0), local:f(-0e0)", "0\n-0");
+    // results of non-deterministic functions and new nodes are not cached
+    query("declare %basex:memoize function local:f($a) { <a>{ $a }</a> }; "
+        + "local:f(1) is local:f(1)", false);
+    query("declare %basex:memoize function local:f($a) { random:double() }; "
+        + "local:f(1) = local:f(1)", false);
+    error("declare %basex:memoize('x') function local:x() { 1 }; 1", BASEX_ANNOTATION_X_X_X);
+  }
+
   /** Parsing errors and conflicts. */
   @Test public void unknown() {
     // ignore prefixes with no annotation definitions
@@ -343,4 +343,111 @@ public final class GFLWORTest extends QueryPlanTest {
     check("let $x := <x>0</x> let $b := $x/text() return $b + 1", 1, count(Let.class, 1));
     error("let $x := <x>false</x> let $b as xs:boolean := $x/text() return $b", INVTYPE_X_X_X);
   }
+
+  /** Parallel evaluation of for clauses. */
+  @Test public void parallel() {
+    final String flwor = "for $i at $p in 1 to 10000 let $j := $i * $n where $j mod 3 = 0 "
+        + "return ($j, $p)";
+    final String expected = query("let $n := <n>2</n> return " + flwor);
+    check("let $n := <n>2</n> return (# basex:parallel #) { " + flwor + " }", expected,
+        exists("GFLWOR[@parallel = 'true']"));
+
+    // context value
+    check("<a>1</a> ! ((# basex:parallel #) { for $i in 1 to 100 return $i + . })",
+        query("<a>1</a> ! (for $i in 1 to 100 return $i + .)"),
+        exists("GFLWOR[@parallel = 'true']"));
+
+    // errors
+    error("(# basex:parallel #) { for $i in 1 to 100 return if($i = 50) then error() else $i }",
+        FUNERR1);
+
+    // non-deterministic and order-dependent expressions are evaluated sequentially
+    check("count((# basex:parallel #) { for $i in 1 to 100 return random:double() })", 100,
+        empty("GFLWOR[@parallel]"));
+    check("(# basex:parallel #) { for $i in 1 to 3 order by -$i return $i }", "3\n2\n1",
+        empty("GFLWOR[@parallel]"));
+  }
+
+  /** Hash joins. */
+  @Test public void join() {
+    final String a = "let $a := (1 to 100) ! <a k='{ . mod 10 }'>{ . }</a> ";
+    final String b = "let $b := (1 to 20) ! <b k='{ . }' l='{ . * 2 } { . * 3 }'>{ . }</b> ";
+    check(a + b + "for $x in $a for $y in $b where $x/@k = $y/@k return $x || ':' || $y",
+        query(a + b + "for $x in $a for $y in $b return if($x/@k = $y/@k) "
+            + "then $x || ':' || $y else ()"),
+        exists(Join.class));
+
+    // multiple keys, original order of the joined items
+    check(a + b + "for $x in $a[. <= 6] for $y in $b "
+        + "where tokenize($y/@l) = (string($x), string($x * 2)) return $x || ':' || $y",
+        "1:1\n2:1\n2:2\n3:1\n3:2\n3:3\n4:2\n4:4\n5:5\n6:2\n6:3\n6:4\n6:6", exists(Join.class));
+    // numeric comparisons
+    check("for $x in (1, 2.0, 3e0) for $y in (3, 2e0, 1.0) where $y = $x return $y",
+        "1\n2\n3", exists(Join.class));
+    // keys of the outer tuples
+    check("for $x in 1 to 3 let $s := string($x) for $y in ('1', '3', '1') where $s = $y "
+        + "return $x", "1\n1\n3", exists(Join.class));
+
+    // no rewrite: single iteration, dependent expressions, positional variables
+    check("for $y in (1, 2) where $y = 2 return $y", 2, empty(Join.class));
+    check("for $x in 1 to 3 for $y in $x to 3 where $y = $x return $y", "1\n2\n3",
+        empty(Join.class));
+    check("for $x in 1 to 3 for $y at $p in (1, 2) where $y = $x return $p", "1\n2",
+        empty(Join.class));
+  }
+
+  /** Order by clauses with a limited number of results. */
+  @Test public void orderLimit() {
+    final String flwor = "for $i in 1 to 100000 order by $i mod 1000 descending, $i return $i";
+    check("subsequence(" + flwor + ", 1, 3)", "999\n1999\n2999", exists("OrderBy[@max = 3]"));
+    check("(" + flwor + ")[position() <= 2]", "999\n1999", exists("OrderBy[@max = 2]"));
+    check("head(" + flwor + ")", 999, exists("OrderBy[@max = 1]"));
+    check("(" + flwor + ")[4]", 3999, exists("OrderBy[@max = 4]"));
+    check("(for $i in 1 to 5 order by $i mod 2 return $i)[position() < 3]", "2\n4",
+        exists("OrderBy[@max = 2]"));
+
+    check("(for $i in 1 to 5 order by -$i return ($i[. > 2], $i))[position() <= 3]",
+        "5\n5\n4", exists("OrderBy[@max = 3]"));
+
+    // tuples may yield no results
+    check("(for $i in 1 to 5 order by $i return $i[. > 2])[position() <= 2]", "3\n4",
+        empty("OrderBy[@max]"));
+    check("(for $i in 1 to 5 order by -$i count $c where $c mod 2 = 0 return $i)[1]", 4,
+        empty("OrderBy[@max]"));
+    // full sort
+    check("count(" + flwor + ")", 100000, empty("OrderBy[@max]"));
+  }
+
+  /** Group by clauses with aggregated non-grouping variables. */
+  @Test public void groupAggregate() {
+    final String input = "for $i in 1 to 1000 let $k := $i mod 3, $s := string($i) ";
+    check(input + "group by $k order by $k return count($i)", "333\n334\n333",
+        exists("GroupBy/" + Util.className(COUNT.def.clazz)));
+    check(input + "group by $k order by $k return sum($i)", "166833\n167167\n166500",
+        exists("GroupBy/" + Util.className(SUM.def.clazz)));
+    check(input + "group by $k order by $k return min($s) || '-' || max($i)",
+        "102-999\n1-1000\n101-998",
+        exists("GroupBy/" + Util.className(MIN.def.clazz)),
+        exists("GroupBy/" + Util.className(MAX.def.clazz)));
+    check("for $i in (1, 2, 3) let $n := <n>{ $i }</n>[$i > 1] group by $k := $i mod 2 "
+        + "order by $k return (count($n), sum($n), min($n))", "1\n2\n2\n1\n3\n3",
+        empty("GroupBy/*[starts-with(name(), 'Fn')]"));
+    check("for $i in (1, 2, 3) let $n := ($i[. > 1] ! xs:dayTimeDuration('PT' || . || 'S')) "
+        + "group by $k := $i mod 2 order by $k return string(sum($n))", "PT2S\nPT3S",
+        exists("GroupBy/" + Util.className(SUM.def.clazz)));
+
+    // no aggregation if variables are referenced otherwise
+    check(input + "group by $k order by $k return count($i) + head($i)", "336\n335\n335",
+        empty("GroupBy/" + Util.className(COUNT.def.clazz)));
+    check(input + "group by $k order by $k return count($i) + sum($i)",
+        "167166\n167501\n166833", empty("GroupBy/" + Util.className(COUNT.def.clazz)));
+
+    // values that cannot be aggregated: errors are only raised if the variable is evaluated
+    query("for $i in (1, 'a') group by $k := 1 "
+        + "return if(random:double() < 2) then 'lazy' else sum($i)", "lazy");
+    query("for $i in (1, 'a', 2) group by $k := 1 "
+        + "return if(random:double() < 2) then 'lazy' else max($i)", "lazy");
+    error("for $i in (1, 'a') group by $k := 1 return sum($i)", CMP_X_X_X);
+    error("for $i in (1, 'a', 2) group by $k := 1 return max($i)", CMP_X_X_X);
+  }
 }
@@ -4,6 +4,7 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 
 import org.basex.*;
+import org.basex.util.*;
 import org.junit.*;
 
 /**
@@ -57,6 +58,37 @@ public final class FetchModuleTest extends SandboxTest {
     query(func.args(_CONVERT_STRING_TO_BASE64.args(" '" + data + '\'', encoding)), xml);
   }
 
+  /** Test method. */
+  @Test public void xmlStream() {
+    final Function func = _FETCH_XML_STREAM;
+    // successful queries
+    query(func.args(XML, "/html/body/div/ul/li") + " ! string()", "Exercise 1\nExercise 2");
+    query(COUNT.args(func.args(XML, "/*/*")), 2);
+    query(COUNT.args(func.args(XML, "/html/*/*")), 3);
+    query(func.args(XML, "/html/head") + " ! name()", "head");
+    query(func.args(XML, "/html/head") + "/..", "");
+    query(func.args(XML, "/html/head/title/x"), "");
+    query(func.args(XML, "/body"), "");
+
+    // inherit namespaces, compare local names
+    final String file = Prop.TEMPDIR + NAME + ".xml";
+    query(_FILE_WRITE.args(file, " <a xmlns:p='u'><p:b/><b xmlns='v'><c/></b></a>"));
+    query(func.args(file, "/a/b") + " ! namespace-uri()", "u\nv");
+    query(func.args(file, "/a/b/c") + " ! namespace-uri()", "v");
+    error(func.args(file, "/a/*[1]"), FETCH_PATH_X);
+
+    // large input
+    query(_FILE_WRITE.args(file, " <a>{ (1 to 100000) ! <b>{ . }</b> }</a>"));
+    query(COUNT.args(func.args(file, "/a/b")), 100000);
+    query(func.args(file, "/a/b") + "[1]", "<b>1</b>");
+    query(_FILE_DELETE.args(file));
+
+    error(func.args(XML, "html"), FETCH_PATH_X);
+    error(func.args(XML, "/html//li"), FETCH_PATH_X);
+    error(func.args(XML, "/html/"), FETCH_PATH_X);
+    error(func.args(XML + 'x', "/html"), FETCH_OPEN_X);
+  }
+
   /** Test method. */
   @Test public void binary() {
     final Function func = _FETCH_BINARY;
@@ -173,6 +173,43 @@ public final class UtilModuleTest extends QueryPlanTest {
     query("sort(" + func.args(" tokenize(<a/>)", 2) + ")", 2);
   }
 
+  /** Test method. */
+  @Test public void parallelFilter() {
+    final Function func = _UTIL_PARALLEL_FILTER;
+    query(func.args(" ()", " boolean#1"), "");
+    query(func.args(" 1 to 10", " function($i) { $i mod 3 = 0 }"), "3\n6\n9");
+    query("count(" + func.args(" 1 to 100000", " function($i) { $i mod 2 = 0 }") + ")", 50000);
+    query(func.args(" (<a/>, <b/>, <a/>)", " function($n) { name($n) = 'a' }"),
+        "<a/>\n<a/>");
+    error(func.args(" 1 to 10", " function($i) { $i }"), INVTYPE_X_X_X);
+    error(func.args(" 1 to 10", " function($i) { error() }"), FUNERR1);
+  }
+
+  /** Test method. */
+  @Test public void parallelForEach() {
+    final Function func = _UTIL_PARALLEL_FOR_EACH;
+    query(func.args(" ()", " string#1"), "");
+    query(func.args(" 1", " string#1"), 1);
+    query(func.args(" 1 to 5", " function($i) { $i * 2 }"), "2\n4\n6\n8\n10");
+    query(func.args(" 1 to 3", " function($i) { 1 to $i }"), "1\n1\n2\n1\n2\n3");
+    query(func.args(" 1 to 100000", " function($i) { $i * 2 }") + "[last()]", 200000);
+    query("let $x := 10 return sum(" + func.args(" 1 to 1000", " function($i) { $i + $x }")
+        + ")", 510500);
+    error(func.args(" 1 to 10", " function($i) { error() }"), FUNERR1);
+  }
+
+  /** Test method. */
+  @Test public void parallelSort() {
+    final Function func = _UTIL_PARALLEL_SORT;
+    query(func.args(" ()"), "");
+    query(func.args(" (3, 1, 2)"), "1\n2\n3");
+    query(func.args(" (3, 1, 2)", " ()", " function($i) { -$i }"), "3\n2\n1");
+    query(func.args(" ('b', 'A', 'c')", " ()", " upper-case#1"), "A\nb\nc");
+    query("deep-equal(" + func.args(" (1 to 100000) ! (. mod 1000)", " ()", " string#1") + ", "
+        + "sort((1 to 100000) ! (. mod 1000), (), string#1))", true);
+    error(func.args(" (1, 'a')"), CMPTYPES_X_X);
+  }
+
   /** Test method. */
   @Test public void range() {
     final Function func = _UTIL_RANGE;
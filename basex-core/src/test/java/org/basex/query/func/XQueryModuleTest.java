@@ -2,6 +2,9 @@ package org.basex.query.func;
 
 import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
 
 import org.basex.*;
 import org.basex.core.*;
@@ -113,6 +116,13 @@ public final class XQueryModuleTest extends SandboxTest {
     query(func.args(" (true#0, function() { (1 to 10000000)[.=1] })"), "true\n1");
     query(func.args(" ()"), "");
 
+    // threads of the shared worker pool are reused
+    query("count(" + func.args(" (1 to 1000) ! false#0") + ')', 1000);
+    final ForkJoinPool pool = context.jobs.workers();
+    assertTrue(pool.getPoolSize() <= pool.getParallelism());
+    query("count(" + func.args(" (1 to 1000) ! false#0") + ')', 1000);
+    assertSame(pool, context.jobs.workers());
+
     // errors
     error(func.args(" count#1"), ZEROFUNCS_X_X);
     error(func.args(" 123"), ZEROFUNCS_X_X);
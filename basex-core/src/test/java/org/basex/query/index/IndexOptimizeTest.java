@@ -5,6 +5,7 @@ import static org.basex.query.func.Function.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.query.ast.*;
+import org.basex.query.expr.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.expr.index.*;
 import org.basex.util.*;
@@ -240,6 +241,44 @@ public final class IndexOptimizeTest extends QueryPlanTest {
     check("let $s := 1 return *[if($s) then () else .//text() = 'A']", "", empty());
   }
 
+  /** Chooses index accesses and orders predicates by their estimated costs. */
+  @Test public void costs() {
+    final String items = "<xml>{ for $i in 1 to 999 return <item cat='c{ $i mod 2 }' "
+        + "type='t{ $i mod 100 }'><price>{ $i }</price></item> }</xml>";
+    execute(new CreateDB(NAME));
+    query(_DB_ADD.args(NAME, " " + items, "doc.xml"));
+    execute(new Optimize());
+
+    // choose range index access with few results
+    check("count(//item[price = 900 to 998][@cat = 'c1'])", 49,
+        exists(RangeAccess.class), count(ValueAccess.class, 0));
+    // conjunctive index accesses: filter results of cheapest index access
+    check("count(//item[(@cat = 'c1' and @type = 't5') or @type = 't7'])", 20,
+        count(ValueAccess.class, 2), empty(Intersect.class));
+    check("count(//item[(@cat = 'c1' and @type = ('t5', 't7')) or @type = 't8'])", 30,
+        count(ValueAccess.class, 2), empty(Intersect.class));
+    check("count(//item[(@type = 't4' and @type = ('t4', 't5')) or @type = 't8'])", 20,
+        count(ValueAccess.class, 3), exists(Intersect.class));
+
+    // evaluate most selective predicates first
+    set(MainOptions.ATTRINDEX, false);
+    set(MainOptions.TEXTINDEX, false);
+    try {
+      execute(new CreateDB(NAME));
+      query(_DB_ADD.args(NAME, " " + items, "doc.xml"));
+      execute(new Optimize());
+      check("count(//item[@cat = 'c1'][@type = 't5'])", 10,
+          exists("*[@test = '*:item']/*[1]//*[@test = '*:type']"));
+      check("count(//item[price][@type = 't5'])", 10,
+          exists("*[@test = '*:item']/*[1]//*[@test = '*:type']"));
+      check("count(//item[@type = 't5'][@cat = 'c1'])", 10,
+          exists("*[@test = '*:item']/*[1]//*[@test = '*:type']"));
+    } finally {
+      set(MainOptions.ATTRINDEX, true);
+      set(MainOptions.TEXTINDEX, true);
+    }
+  }
+
   /**
    * Creates a test database.
    */
@@ -0,0 +1,221 @@
+package org.basex.server;
+
+import static org.basex.core.Text.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.users.*;
+import org.basex.io.*;
+import org.basex.server.Log.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the client/server session API, using a bounded number of server threads.
+ *
+ * @author BaseX Team 2005-19, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientDispatcherTest extends SessionTest {
+  /** Number of server threads. */
+  private static final int THREADS = 2;
+  /** Server reference. */
+  private static BaseXServer server;
+
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass public static void startServer() throws IOException {
+    final String name = Prop.DBPREFIX + StaticOptions.SERVERTHREADS.name();
+    System.setProperty(name, Integer.toString(THREADS));
+    try {
+      server = createServer();
+    } finally {
+      System.clearProperty(name);
+    }
+  }
+
+  /**
+   * Stops the server.
+   */
+  @AfterClass public static void stop() {
+    stopServer(server);
+  }
+
+  /** Starts a session. */
+  @Before public void startSession() {
+    try {
+      session = createClient();
+      session.setOutputStream(out);
+    } catch(final IOException ex) {
+      fail(Util.message(ex));
+    }
+  }
+
+  /**
+   * Serves more clients than server threads.
+   * @throws IOException I/O exception
+   */
+  @Test public void clients() throws IOException {
+    final ArrayList<ClientSession> clients = new ArrayList<>();
+    try {
+      for(int c = 0; c < 50; c++) clients.add(createClient());
+      for(int i = 0; i < 3; i++) {
+        int c = 0;
+        for(final ClientSession client : clients) {
+          assertEquals(Integer.toString(c + i), client.query(c++ + " + " + i).execute());
+        }
+      }
+      assertEquals(clients.size() + 1, server.context.sessions.size());
+    } finally {
+      for(final ClientSession client : clients) client.close();
+    }
+  }
+
+  /**
+   * Opens more server-side cursors than server threads.
+   * @throws IOException I/O exception
+   */
+  @Test public void cursors() throws IOException {
+    final ArrayList<ClientSession> clients = new ArrayList<>();
+    final ArrayList<ClientQuery> queries = new ArrayList<>();
+    try {
+      for(int c = 0; c <= THREADS; c++) {
+        final ClientSession client = createClient();
+        clients.add(client);
+        final ClientQuery query = client.query("1 to 10");
+        queries.add(query);
+        query.fetchSize(2);
+        assertEquals("1", query.next());
+      }
+      // server threads must not be blocked by the cursors
+      try(ClientSession client = createClient()) {
+        assertEquals("2", client.execute("xquery 1 + 1"));
+      }
+      for(final ClientQuery query : queries) {
+        int c = 1;
+        while(query.more()) assertEquals(Integer.toString(++c), query.next());
+        assertEquals(10, c);
+      }
+    } finally {
+      for(final ClientSession client : clients) client.close();
+    }
+  }
+
+  /**
+   * Requests results in chunks. The ignored fetch size must be logged.
+   * @throws IOException I/O exception
+   */
+  @Test public void fetchLog() throws IOException {
+    final StaticOptions sopts = server.context.soptions;
+    sopts.set(StaticOptions.LOG, true);
+    try {
+      final String log = log();
+      try(ClientQuery query = (ClientQuery) session.query("1 to 10")) {
+        query.fetchSize(3);
+        int c = 0;
+        while(query.more()) assertEquals(Integer.toString(++c), query.next());
+        assertEquals(10, c);
+      }
+      final String entries = log().substring(log.length());
+      assertTrue(entries, entries.contains("Fetch size 3 ignored"));
+    } finally {
+      sopts.set(StaticOptions.LOG, false);
+    }
+  }
+
+  /**
+   * Closes sessions with wrong login data. No errors must be logged.
+   * @throws IOException I/O exception
+   */
+  @Test public void login() throws IOException {
+    final StaticOptions sopts = server.context.soptions;
+    sopts.set(StaticOptions.LOG, true);
+    try {
+      final String log = log();
+      for(int c = 0; c < THREADS * 2; c++) {
+        try(Socket socket = new Socket(S_LOCALHOST, DB_PORT)) {
+          socket.setSoTimeout(10000);
+          // skip challenge, send login data, read response
+          final InputStream in = socket.getInputStream();
+          while(in.read() > 0);
+          socket.getOutputStream().write(Token.token(NAME + '\0' + NAME + '\0'));
+          assertEquals(1, in.read());
+          // connection must have been closed by the server
+          assertEquals(-1, in.read());
+        }
+      }
+      // new log entries: access must have been denied, no other errors must have been logged
+      final String entries = log().substring(log.length());
+      assertTrue(entries, entries.contains(ACCESS_DENIED));
+      for(final String line : entries.split("\r?\n")) {
+        if(line.contains(LogType.ERROR.toString())) assertTrue(line, line.contains(ACCESS_DENIED));
+      }
+    } finally {
+      sopts.set(StaticOptions.LOG, false);
+    }
+  }
+
+  /**
+   * Closes clients that stall while sending a request. Other clients must not be blocked.
+   * @throws IOException I/O exception
+   */
+  @Test public void stalled() throws IOException {
+    final StaticOptions sopts = server.context.soptions;
+    sopts.set(StaticOptions.REQUESTTIMEOUT, 1);
+    final ArrayList<Socket> sockets = new ArrayList<>();
+    try {
+      for(int c = 0; c <= THREADS; c++) {
+        final Socket socket = new Socket(S_LOCALHOST, DB_PORT);
+        socket.setSoTimeout(10000);
+        sockets.add(socket);
+        final InputStream in = socket.getInputStream();
+        final OutputStream os = socket.getOutputStream();
+        // receive challenge
+        final ByteList bl = new ByteList();
+        for(int b; (b = in.read()) > 0;) bl.add(b);
+        if(c == 0) {
+          // authenticated client: send incomplete command
+          final String[] response = Strings.split(bl.toString(), ':');
+          final String code = UserText.ADMIN + ':' + response[0] + ':' + UserText.ADMIN;
+          os.write(Token.token(UserText.ADMIN + '\0' +
+              Strings.md5(Strings.md5(code) + response[1]) + '\0'));
+          assertEquals(0, in.read());
+          os.write(Token.token("xquery 1"));
+        } else {
+          // unauthenticated client: send incomplete login data
+          os.write(Token.token(NAME));
+        }
+      }
+      // connections must be closed by the server
+      for(final Socket socket : sockets) assertEquals(-1, socket.getInputStream().read());
+      // workers must be available again
+      try(ClientSession client = createClient()) {
+        assertEquals("2", client.execute("xquery 1 + 1"));
+      }
+    } finally {
+      for(final Socket socket : sockets) socket.close();
+      sopts.set(StaticOptions.REQUESTTIMEOUT, 30);
+    }
+  }
+
+  /**
+   * Returns the contents of all log files of the server.
+   * @return log contents
+   * @throws IOException I/O exception
+   */
+  private static String log() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    for(final IOFile file : server.context.log.files()) sb.append(file.string());
+    return sb.toString();
+  }
+}
@@ -5,8 +5,11 @@ import static org.junit.Assert.*;
 import java.io.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
 import org.basex.util.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * This class tests the client/server session API.
@@ -42,4 +45,88 @@ public class ClientSessionTest extends SessionTest {
       fail(Util.message(ex));
     }
   }
+
+  /** Binds an invalid value and runs a command before the query is executed. The error of the
+   * pipelined binding is raised by the query, not by the command.
+   * @throws IOException I/O exception */
+  @Test public void queryBindCommand() throws IOException {
+    try(Query query = session.query("declare variable $a as xs:integer external; $a")) {
+      query.bind("a", "abc", "xs:integer");
+      assertEqual("cmd-ok", session.execute("xquery 'cmd-ok'"));
+      try {
+        query.execute();
+        fail("Error expected.");
+      } catch(final BaseXException ex) {
+        assertTrue(ex.getMessage(), ex.getMessage().contains("FORG0001"));
+      }
+    }
+    if(out != null) out.reset();
+    assertEqual("2", session.execute("xquery 1 + 1"));
+  }
+
+  /** Retrieves results in chunks via a server-side cursor.
+   * @throws IOException I/O exception */
+  @Test public void queryFetch() throws IOException {
+    try(ClientQuery query = (ClientQuery) session.query("1 to 1000")) {
+      query.fetchSize(7);
+      int c = 0;
+      while(query.more()) assertEqual(Integer.toString(++c), query.next());
+      assertEquals(1000, c);
+      // iterate again
+      assertTrue(query.more());
+      assertEqual("1", query.next());
+    }
+    assertEqual("2", session.execute("xquery 1 + 1"));
+  }
+
+  /** Stops a server-side cursor by sending another request.
+   * @throws IOException I/O exception */
+  @Test public void queryFetchStop() throws IOException {
+    try(ClientQuery query = (ClientQuery) session.query("1 to 100")) {
+      query.fetchSize(2);
+      assertTrue(query.more());
+      assertEqual("1", query.next());
+      assertEqual("2", session.execute("xquery 1 + 1"));
+      assertTrue(query.more());
+      assertEqual("2", query.next());
+      assertFalse(query.more());
+    }
+    assertEqual("3", session.execute("xquery 1 + 2"));
+  }
+
+  /** Raises an error while results are retrieved via a server-side cursor.
+   * @throws IOException I/O exception */
+  @Test public void queryFetchError() throws IOException {
+    final String qu = "(1 to 10) ! (if(. = 5) then error() else .)";
+    try(ClientQuery query = (ClientQuery) session.query(qu)) {
+      query.fetchSize(2);
+      while(query.more()) query.next();
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+    if(out != null) out.reset();
+    assertEqual("2", session.execute("xquery 1 + 1"));
+  }
+
+  /** Stops an idle server-side cursor after the timeout.
+   * @throws IOException I/O exception */
+  @Test public void queryFetchTimeout() throws IOException {
+    final StaticOptions sopts = server.context.soptions;
+    sopts.set(StaticOptions.CURSORTIMEOUT, 1);
+    try(ClientQuery query = (ClientQuery) session.query("1 to 100")) {
+      query.fetchSize(2);
+      assertEqual("1", query.next());
+      assertEqual("2", query.next());
+      Performance.sleep(2000);
+      query.more();
+      fail("Timeout expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    } finally {
+      sopts.set(StaticOptions.CURSORTIMEOUT, 60);
+    }
+    if(out != null) out.reset();
+    assertEqual("2", session.execute("xquery 1 + 1"));
+  }
 }
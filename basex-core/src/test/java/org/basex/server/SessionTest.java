@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 import static org.junit.Assert.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.*;
 import org.basex.api.client.*;
@@ -331,6 +332,89 @@ public abstract class SessionTest extends SandboxTest {
     assertNull(q.next());
   }
 
+  /** Runs a query several times with different bindings.
+   * @throws IOException I/O exception */
+  @Test public void queryBatch() throws IOException {
+    try(Query query = session.query("declare variable $a external; . || $a")) {
+      final ArrayList<Map<String, Object>> bindings = new ArrayList<>();
+      for(int b = 0; b < 3; b++) {
+        final HashMap<String, Object> binding = new HashMap<>();
+        binding.put("", "c" + b);
+        binding.put("a", Int.get(b));
+        bindings.add(binding);
+      }
+      assertEqual("c00c11c22", String.join("", query.execute(bindings)));
+      assertEqual("", String.join("", query.execute(new ArrayList<Map<String, Object>>())));
+    }
+  }
+
+  /** Runs a query several times, with invalid bindings.
+   * @throws IOException I/O exception */
+  @Test public void queryBatchError() throws IOException {
+    try(Query query = session.query("declare variable $a as xs:integer external; $a")) {
+      final ArrayList<Map<String, Object>> bindings = new ArrayList<>();
+      for(final String value : new String[] { "1", "x", "3" }) {
+        final HashMap<String, Object> binding = new HashMap<>();
+        binding.put("a", value);
+        bindings.add(binding);
+      }
+      query.execute(bindings);
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+    if(out != null) out.reset();
+    assertEqual("2", session.execute("xquery 1 + 1"));
+  }
+
+  /** Runs a query several times after a pipelined request of another query has failed.
+   * The error is raised by the query that sent the request.
+   * @throws IOException I/O exception */
+  @Test public void queryBatchPipelinedError() throws IOException {
+    try(Query query1 = session.query("declare variable $a external; $a");
+        Query query2 = session.query("declare variable $a as xs:integer external; $a")) {
+      final ArrayList<Map<String, Object>> bindings = new ArrayList<>();
+      for(int b = 0; b < 3; b++) {
+        final HashMap<String, Object> binding = new HashMap<>();
+        binding.put("a", Int.get(b));
+        bindings.add(binding);
+      }
+      try {
+        query2.bind("a", "x", "xs:integer");
+      } catch(final BaseXException ex) {
+        // local sessions raise the error immediately
+        Util.debug(ex);
+      }
+      assertEqual("012", String.join("", query1.execute(bindings)));
+      try {
+        query2.execute();
+        fail("Error expected.");
+      } catch(final BaseXException ex) {
+        Util.debug(ex);
+      }
+    }
+    if(out != null) out.reset();
+    assertEqual("3", session.execute("xquery 1 + 2"));
+  }
+
+  /** Binds an invalid value. The error is raised no later than when the query is executed.
+   * @throws IOException I/O exception */
+  @Test public void queryBindError() throws IOException {
+    try(Query query = session.query("declare variable $a as xs:integer external; $a")) {
+      query.bind("a", "x", "xs:integer");
+      query.execute();
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      Util.debug(ex);
+    }
+    try(Query query = session.query("declare variable $a external; $a")) {
+      query.bind("a", "1");
+      query.bind("a", "2");
+      assertEqual("2", query.execute());
+    }
+    assertEqual("3", session.execute("xquery 1 + 2"));
+  }
+
   /** Runs a query, omitting more().
    * @throws IOException I/O exception */
   @Test public void queryNoMore() throws IOException {
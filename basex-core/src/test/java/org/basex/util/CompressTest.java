@@ -6,11 +6,14 @@ import static org.junit.Assert.*;
 import java.util.*;
 
 import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
 import org.basex.query.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.item.*;
 import org.basex.util.list.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * Class for testing the {@link Compress} methods.
@@ -58,6 +61,48 @@ public final class CompressTest extends SandboxTest {
     run(bytes);
   }
 
+  /** Test. */
+  @Test public void repeated() {
+    final TokenBuilder tb = new TokenBuilder();
+    for(int i = 0; i < 1000; i++) tb.add("<a href='").addInt(i % 17).add("'>\u00e4\u00f6</a>");
+    run(tb.finish());
+
+    final byte[] bytes = new byte[100000];
+    for(int b = 0; b < bytes.length; b++) bytes[b] = (byte) (b < 50000 ? 'a' : b * 7);
+    run(bytes);
+  }
+
+  /** Test. */
+  @Test public void database() {
+    set(MainOptions.LZCOMPRESS, true);
+    try {
+      final StringBuilder sb = new StringBuilder("<xml>");
+      for(int i = 0; i < 100; i++) {
+        sb.append("<x a='value of attribute ").append(i).append(", value of attribute ");
+        sb.append(i).append("'>text ").append(i).append(", text ").append(i).append("</x>");
+      }
+      execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+      assertEquals("true", query("db:property('" + NAME + "', 'lzcompress')"));
+      final String query = "string-join(//x/(@a, text()))";
+      final String result = query(query);
+      final String updated = query("string-join(//x/((@a || @a), string-join((., ., .))))");
+
+      // compression mode is fixed when the database is created
+      set(MainOptions.LZCOMPRESS, false);
+      execute(new Close());
+      execute(new Open(NAME));
+      assertEquals(result, query(query));
+      query("for $x in //x return replace value of node $x with string-join(($x, $x, $x))");
+      query("for $a in //x/@a return replace value of node $a with $a || $a");
+      execute(new Close());
+      execute(new Open(NAME));
+      assertEquals(updated, query(query));
+      execute(new DropDB(NAME));
+    } finally {
+      set(MainOptions.LZCOMPRESS, false);
+    }
+  }
+
   /** Test.
    * @throws Exception exception */
   @Test public void test7() throws Exception {
@@ -100,11 +145,13 @@ public final class CompressTest extends SandboxTest {
    */
   private static void run(final byte[]... tokens) {
     for(final byte[] token : tokens) {
-      final byte[] cpr = Compress.pack(token);
-      if(token != cpr) {
-        final byte[] pln = Compress.unpack(cpr);
-        if(!eq(token, pln)) {
-          fail("\n[E] " + Arrays.toString(token) + ",\n[F] " + Arrays.toString(pln));
+      for(final boolean lz : new boolean[] { false, true }) {
+        final byte[] cpr = Compress.pack(token, lz);
+        if(token != cpr) {
+          final byte[] pln = Compress.unpack(cpr);
+          if(!eq(token, pln)) {
+            fail("\n[E] " + Arrays.toString(token) + ",\n[F] " + Arrays.toString(pln));
+          }
         }
       }
     }